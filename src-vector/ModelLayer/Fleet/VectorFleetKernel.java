@@ -0,0 +1,110 @@
+package ModelLayer.Fleet;
+
+import ModelLayer.CarInput;
+import ModelLayer.FixedPointMath;
+import ModelLayer.TickPhysics;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Updates the speed of the cars of a CarFleet and integrates their positions with the Vector API (SIMD), several cars at once.
+ * The branches of the scalar kernel (FleetKernel) are replaced by masks: every outcome is calculated for all the lanes,
+ * and the right one is selected for each car, so the results are exactly the same as the scalar kernel's.
+ * The Q16 values are held in 64 bit lanes, so the products of the fixed-point multiplications do not overflow.
+ * All the arrays have the same lane size, so no masks or vectors need to be converted between shapes, and no gather is needed
+ * (the direction of each car is kept in its own arrays, instead of being looked up by the angle).
+ * Needs JDK 16+ and the jdk.incubator.vector module to compile and to run (--add-modules jdk.incubator.vector), so it is kept
+ * in the optional src-vector source root, compiled against src into the same output. It is loaded by FleetKernel.Create
+ * if it is present and the module can be loaded, otherwise the scalar kernel is used.
+ */
+final class VectorFleetKernel extends FleetKernel
+{
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED; //The 64 bit lanes of all the arrays
+
+    /**
+     * Updates the speed of the cars of a CarFleet and integrates their positions with the Vector API.
+     *
+     * @param physics The driving physics constants converted to the tick length of the match.
+     */
+    VectorFleetKernel(TickPhysics physics)
+    {
+        super(physics);
+    }
+
+    @Override
+    boolean IsVectorized()
+    {
+        return true;
+    }
+
+    @Override
+    void Step(int count, long[] inputs, long[] speed, long[] reverse, long[] onGrass, long[] directionX, long[] directionY,
+              long[] subPixelX, long[] subPixelY, long[] newSubPixelX, long[] newSubPixelY)
+    {
+        int bound = LONGS.loopBound(count);
+        for (int i = 0; i < bound; i += LONGS.length())
+        {
+            LongVector input = LongVector.fromArray(LONGS, inputs, i);
+            VectorMask<Long> isForwardPressed = input.and(CarInput.ACCELERATE).compare(VectorOperators.NE, 0);
+            VectorMask<Long> isBackwardPressed = input.and(CarInput.BRAKE).compare(VectorOperators.NE, 0);
+            VectorMask<Long> onlyForward = isForwardPressed.andNot(isBackwardPressed);
+            VectorMask<Long> onlyBackward = isBackwardPressed.andNot(isForwardPressed);
+            VectorMask<Long> isReverse = LongVector.fromArray(LONGS, reverse, i).compare(VectorOperators.NE, 0);
+            VectorMask<Long> isOnGrass = LongVector.fromArray(LONGS, onGrass, i).compare(VectorOperators.NE, 0);
+
+            LongVector s = LongVector.fromArray(LONGS, speed, i);
+            VectorMask<Long> isCarStopped = s.compare(VectorOperators.EQ, 0);
+            VectorMask<Long> isAccelerating = onlyForward.and(isReverse.not().or(isCarStopped))
+                    .or(onlyBackward.and(isReverse.or(isCarStopped)));
+
+            //Slowing down (or stopping) applies to the cars which do not accelerate, and to the ones over their speed limit
+            VectorMask<Long> isStopping = s.compare(VectorOperators.LE, _StopThreshold);
+            LongVector slowed = Multiply(s, _SlowdownRatio).blend(0, isStopping);
+
+            LongVector speedLimit = LongVector.broadcast(LONGS, _MaximumSpeed)
+                    .blend(_MaximumReverseSpeed, onlyBackward)
+                    .blend(_MaximumGrassSpeed, isOnGrass)
+                    .blend(_MaximumGrassReverseSpeed, isOnGrass.and(onlyBackward));
+            LongVector accelerated = Multiply(s, _HighSpeedAccelerationRatio)
+                    .blend(Multiply(s, _NormalAccelerationRatio), s.compare(VectorOperators.LT, _NormalAccelerationSpeedLimit))
+                    .blend(Multiply(s, _RadicalAccelerationRatio), s.compare(VectorOperators.LT, _RadicalAccelerationSpeedLimit))
+                    .blend(_ColdStartSpeed, isCarStopped)
+                    .min(speedLimit);
+            VectorMask<Long> isOverLimit = s.compare(VectorOperators.GT, speedLimit);
+            LongVector acceleratedOrLimited = s.blend(accelerated, s.compare(VectorOperators.LT, speedLimit)).blend(slowed, isOverLimit);
+            s = slowed.blend(acceleratedOrLimited, isAccelerating);
+            s.intoArray(speed, i);
+
+            //An accelerating car is in reverse if only backward is pressed. A stopping car leaves reverse.
+            VectorMask<Long> isSlowingDown = isAccelerating.not().or(isOverLimit);
+            isReverse = isReverse.andNot(isAccelerating).or(onlyBackward.and(isAccelerating)).andNot(isSlowingDown.and(isStopping));
+            LongVector.zero(LONGS).blend(1, isReverse).intoArray(reverse, i);
+
+            LongVector dx = Multiply(s, LongVector.fromArray(LONGS, directionX, i)).lanewise(VectorOperators.NEG, isReverse);
+            LongVector dy = Multiply(s, LongVector.fromArray(LONGS, directionY, i)).lanewise(VectorOperators.NEG, isReverse);
+            LongVector.fromArray(LONGS, subPixelX, i).add(dx).intoArray(newSubPixelX, i);
+            LongVector.fromArray(LONGS, subPixelY, i).add(dy).intoArray(newSubPixelY, i);
+        }
+
+        //The remaining cars which do not fill a whole vector
+        StepCars(bound, count, inputs, speed, reverse, onGrass, directionX, directionY, subPixelX, subPixelY, newSubPixelX, newSubPixelY);
+    }
+
+    /**
+     * Multiplies Q16 values in each lane by a constant, the same way as FixedPointMath.Multiply.
+     */
+    private static LongVector Multiply(LongVector a, long b)
+    {
+        return a.mul(b).lanewise(VectorOperators.ASHR, FixedPointMath.FRACTION_BITS);
+    }
+
+    /**
+     * Multiplies Q16 values lane by lane, the same way as FixedPointMath.Multiply.
+     */
+    private static LongVector Multiply(LongVector a, LongVector b)
+    {
+        return a.mul(b).lanewise(VectorOperators.ASHR, FixedPointMath.FRACTION_BITS);
+    }
+}
@@ -97,7 +97,7 @@ public class Controller {
      */
     public void LaunchGame()
     {
-        _GameEngine = new GameEngine(_UICore, _SoundEngine);
+        _GameEngine = new GameEngine(CurrentGameSession.get_Session(), _UICore, _SoundEngine);
         _GameEngine.StartGame();
     }
 
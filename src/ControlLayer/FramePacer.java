@@ -0,0 +1,147 @@
+package ControlLayer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the simulation ticks to a fixed rate, using the high-resolution System.nanoTime clock.
+ * Waiting is done with a hybrid approach: the thread sleeps until it is close to the deadline, then spins
+ * (yielding) for the remaining short time. This keeps the tick rate accurate even where sleeping has a coarse granularity.
+ * If the simulation falls behind (e.g. the thread did not get CPU time), a bounded number of missed ticks are
+ * caught up by running them back to back. Ticks above that bound are dropped, so the game does not spiral into
+ * running catch-up ticks forever. Late and dropped ticks are counted, so they can be reported.
+ * The counters are written by the pacing thread only, and can be read from any thread.
+ */
+public class FramePacer
+{
+    private volatile long _TickLength; //The (wall clock) time between two ticks in nanoseconds
+    private final int _MaxCatchUpTicks; //The maximum number of ticks run back to back after a stall
+    private final long _SpinThreshold = TimeUnit.MICROSECONDS.toNanos(SharedResources.FP_Spin_Threshold_Microseconds); //Spinning instead of sleeping this close to the deadline
+    private final long _LateTolerance = TimeUnit.MICROSECONDS.toNanos(SharedResources.FP_Late_Tick_Tolerance_Microseconds); //A tick started later than this after its deadline is late
+    private long _NextTick; //The deadline of the next tick, as returned by System.nanoTime
+    private volatile long _TickCount; //The number of ticks run so far
+    private volatile long _LateTicks; //The number of ticks which started later than the tolerance after their deadline
+    private volatile long _DroppedTicks; //The number of ticks which were skipped because the catch-up limit was reached
+    private volatile long _MaxLateness; //The highest lateness of a tick in nanoseconds
+
+    /**
+     * Paces the simulation ticks to a fixed rate.
+     *
+     * @param tickLength      The time between two ticks in nanoseconds.
+     * @param maxCatchUpTicks The maximum number of ticks to run back to back after a stall. Must be at least 1.
+     */
+    public FramePacer(long tickLength, int maxCatchUpTicks)
+    {
+        _TickLength = tickLength;
+        _MaxCatchUpTicks = Math.max(1, maxCatchUpTicks);
+    }
+
+    /**
+     * Starts the pacing. The first tick is due one tick length from now.
+     */
+    public void Start()
+    {
+        _NextTick = System.nanoTime() + _TickLength;
+    }
+
+    /**
+     * Changes the time between two ticks (e.g. when the time scale of the game changes).
+     * The next tick keeps its current deadline, the new length applies from the tick after it.
+     *
+     * @param tickLength The (wall clock) time between two ticks in nanoseconds.
+     */
+    public void set_TickLength(long tickLength)
+    {
+        _TickLength = tickLength;
+    }
+
+    /**
+     * Waits until the next tick is due, and returns how many ticks need to be run now.
+     * Normally this is 1. After a stall it is more (the missed ticks), but not more than the catch-up limit.
+     *
+     * @return The number of ticks to run back to back (at least 1).
+     * @throws InterruptedException If the thread has been interrupted while waiting (e.g. the game has been shut down).
+     */
+    public int WaitForNextTicks() throws InterruptedException
+    {
+        WaitUntil(_NextTick);
+
+        long tickLength = _TickLength;
+        long now = System.nanoTime();
+        long dueTicks = (now - _NextTick) / tickLength + 1;
+        int ticksToRun = (int) Math.min(dueTicks, _MaxCatchUpTicks);
+
+        //Count the ticks which are started late. The lateness of each tick is measured against its own deadline.
+        for (int i = 0; i < ticksToRun; i++)
+        {
+            long lateness = now - (_NextTick + i * tickLength);
+            if (lateness > _LateTolerance)
+                _LateTicks++;
+            _MaxLateness = Math.max(_MaxLateness, lateness);
+        }
+
+        //Skip the ticks over the catch-up limit
+        _DroppedTicks += dueTicks - ticksToRun;
+        _NextTick += dueTicks * tickLength;
+        _TickCount += ticksToRun;
+        return ticksToRun;
+    }
+
+    /**
+     * Sleeps until close to the deadline, then spins until the deadline is reached.
+     *
+     * @param deadline The time to wait for, as returned by System.nanoTime.
+     * @throws InterruptedException If the thread has been interrupted while sleeping.
+     */
+    private void WaitUntil(long deadline) throws InterruptedException
+    {
+        long remaining = deadline - System.nanoTime();
+        while (remaining > 0)
+        {
+            if (remaining > _SpinThreshold)
+            {
+                TimeUnit.NANOSECONDS.sleep(remaining - _SpinThreshold);
+            }
+            else
+            {
+                Thread.yield();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the number of ticks run so far.
+     * @return The number of ticks run so far.
+     */
+    public long get_TickCount()
+    {
+        return _TickCount;
+    }
+
+    /**
+     * Returns the number of ticks which started later than the tolerance (SharedResources.FP_Late_Tick_Tolerance_Microseconds) after their deadline.
+     * @return The number of late ticks.
+     */
+    public long get_LateTicks()
+    {
+        return _LateTicks;
+    }
+
+    /**
+     * Returns the number of ticks which were skipped, because more ticks were missed than the catch-up limit.
+     * @return The number of dropped ticks.
+     */
+    public long get_DroppedTicks()
+    {
+        return _DroppedTicks;
+    }
+
+    /**
+     * Returns the highest lateness of a tick (compared to its deadline).
+     * @return The highest lateness in nanoseconds.
+     */
+    public long get_MaxLateness()
+    {
+        return _MaxLateness;
+    }
+}
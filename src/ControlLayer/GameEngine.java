@@ -1,8 +1,14 @@
 package ControlLayer;
 
+import ModelLayer.Car;
+import ModelLayer.CarState;
 import ModelLayer.CollisionManagement.CollisionManager;
+import ModelLayer.Enumerations.GameEventType;
 import ModelLayer.MapML.EasyMapML;
+import ModelLayer.MapML.MapModel;
 import ModelLayer.MapML.MediumMapML;
+import ModelLayer.Player;
+import ModelLayer.SimulationFrame;
 import ViewLayer.MapVL.EasyMapVL;
 import ViewLayer.MapVL.MediumMapVL;
 import ViewLayer.SoundEngine;
@@ -11,150 +17,578 @@ import ViewLayer.SwingUICore;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * Manages/controls one game session/scenario.
+ * The game is simulated with a fixed tick rate on a dedicated simulation thread.
+ * The Swing Event Dispatch Thread only consumes the finished frames, so a slow paint never slows down the game.
+ * The screen is refreshed with the display's refresh rate, interpolating the cars between the last two finished ticks.
+ * In headless mode there is no UI nor sound, and the caller steps the game (as fast as possible) with RunTicks.
+ * The game time can be scaled (e.g. 0.25x slow motion, 10x fast forward), or the ticks can be run back to back
+ * without pacing (unthrottled mode, e.g. for bot testing). The achieved ticks per second are measured in every mode.
+ * The in-game events (impacts, accelerations, crashes) are collected by the GameEventBus, and delivered to the
+ * subscribers (e.g. the SoundEngine) once per tick, off the simulation thread.
  */
 public class GameEngine implements ActionListener {
-    private final SwingUICore _UICore; //The top level Swing JFrame that loads other panels to display content.
-    private final SoundEngine _SoundEngine; //Fully controls one game scenario
-    private Timer _FrameRateTimer; //The timer which triggers the periodical updates for the game/screen
+    private final SwingUICore _UICore; //The top level Swing JFrame that loads other panels to display content. Null in headless mode.
+    private final SoundEngine _SoundEngine; //Plays background music and sounds. Null in headless mode.
+    private final boolean _Headless; //True if the game runs without Swing components (no UI, no sounds)
+    private final GameSession _Session; //The game session (match) run by this engine
+    private final GameEventBus _EventBus = new GameEventBus(); //Collects the in-game events of a tick, and delivers them to the subscribers
+    private final Object _SimulationLock = new Object(); //Guards the model state shared by the simulation thread and the EDT (key presses)
+    private final long _TickLength; //The simulated time of one tick in nanoseconds (taken from the game session)
+    private Thread _SimulationThread; //The thread which runs the fixed rate simulation loop
+    private FramePacer _FramePacer; //Paces the simulation loop to the fixed tick rate, and counts the late and dropped ticks
+    private Timer _RenderTimer; //The timer which triggers the screen refreshes on the EDT, with the display's refresh rate
+    private volatile boolean _SimulationRunning; //False when the simulation loop needs to exit
+    private volatile float _TimeScale = SharedResources.FP_Default_Time_Scale; //The speed of the game time compared to the wall clock. SharedResources.FP_Unthrottled_Time_Scale means as fast as possible.
+    private final long _RateWindowLength = TimeUnit.MILLISECONDS.toNanos(SharedResources.FP_TicksPerSecond_Measuring_Window_Milliseconds); //The length of a ticks per second measuring window in nanoseconds
+    private volatile long _TicksRun; //The number of ticks run since the game started
+    private long _RateWindowStart; //The start of the current ticks per second measuring window, as returned by System.nanoTime
+    private long _RateWindowTicks; //The number of ticks run in the current measuring window
+    private volatile double _AchievedTicksPerSecond; //The ticks per second measured in the last finished measuring window
+    private volatile SimulationFrame _LatestFrame; //The last finished tick, containing the state of the cars at the end of it and at the end of the tick before
+    private SimulationFrame[] _Frames; //The frames reused in turn (the latest, the one before it, and the one being written), created when the game starts
+    private int _NextFrame; //The index of the frame to write at the end of the next tick
 
     /**
      * Manages/controls one game session/scenario.
      *
+     * @param Session The game session (match) to run.
      * @param UICore  The top level JFRame where the InGameScreen JPanel will be loaded
      * @param SEngine The SoundEngine that plays background music and sounds.
      */
-    public GameEngine(SwingUICore UICore, SoundEngine SEngine)
+    public GameEngine(GameSession Session, SwingUICore UICore, SoundEngine SEngine)
     {
+        _Session = Session;
+        _TickLength = Session.get_TickLength();
         _UICore = UICore;
         _SoundEngine = SEngine;
+        _Headless = false;
     }
 
     /**
-     * Starts the game with configurations sourced from the CurrentGameSession.
-     * Instantiates the model and view objects of the selected map.
-     * Instantiates the Collision Manager.
-     * Instantiates the Timer which triggers the periodical updates.
-     * Finally, orders the top level JFrame to load the InGameScreen JPanel.
+     * Manages/controls one game session/scenario in headless mode (without any Swing components or sounds).
+     * The game does not run by itself, it needs to be stepped by calling RunTicks.
+     *
+     * @param Session The game session (match) to run.
+     */
+    public GameEngine(GameSession Session)
+    {
+        _Session = Session;
+        _TickLength = Session.get_TickLength();
+        _UICore = null;
+        _SoundEngine = null;
+        _Headless = true;
+    }
+
+    /**
+     * Starts the game with configurations sourced from the _Session.
+     * Instantiates the model (and in non-headless mode the view) objects of the selected map.
+     * Places the cars to their starting points and instantiates the Collision Manager.
+     * In non-headless mode, orders the top level JFrame to load the InGameScreen JPanel.
+     * Finally, starts the simulation thread which triggers the periodical updates,
+     * and the render timer which refreshes the screen (not in headless mode).
      */
     public void StartGame()
     {
+        _Session.set_GameEngine(this);
         InstantiateSelectedMap();
-        CollisionManager cm = new CollisionManager(CurrentGameSession.get_CurrentPlayers(), CurrentGameSession.get_MapModel().GetMapObjects());
-        CurrentGameSession.set_CollisionManager(cm);
+        PlaceCarsOnStartingPoints();
+        CreateFrames();
+        MapModel map = _Session.get_MapModel();
+        CollisionManager cm = new CollisionManager(_Session.get_CurrentPlayers(), map.GetMapObjects(), map.GetTerrainGrid());
+        _Session.set_CollisionManager(cm);
+        PublishFrame();
+        _RateWindowStart = System.nanoTime();
+        _SimulationRunning = true;
 
+        if (_Headless)
+            return;
+
+        _EventBus.Subscribe(_SoundEngine);
         _UICore.NavigateToInGameScreen();
-        _FrameRateTimer = new Timer(SharedResources.FRAMERATE, this); //Setting this instance to be the event handler as well
-        _FrameRateTimer.start();
+
+        _FramePacer = new FramePacer(GetWallClockTickLength(), SharedResources.FP_Max_CatchUp_Ticks);
+        _SimulationThread = new Thread(this::RunSimulationLoop, SharedResources.APPLICATIONNAME + " simulation");
+        _SimulationThread.setDaemon(true);
+        _SimulationThread.start();
+
+        _RenderTimer = new Timer(1000 / _UICore.GetDisplayRefreshRate(), this); //Setting this instance to be the event handler as well
+        _RenderTimer.start();
     }
 
+    /**
+     * Places the cars to the starting points of the selected map, facing the map's starting angle.
+     */
+    private void PlaceCarsOnStartingPoints()
+    {
+        MapModel map = _Session.get_MapModel();
+        ArrayList<Player> players = _Session.get_CurrentPlayers();
+
+        players.get(0).get_Car().ResetForNewGame(map.getCAR_StartingPoint_X_Player1(), map.getCAR_StartingPoint_Y_Player1(), map.getCAR_Starting_Angle());
+        if (players.size() > 1)
+        {
+            players.get(1).get_Car().ResetForNewGame(map.getCAR_StartingPoint_X_Player2(), map.getCAR_StartingPoint_Y_Player2(), map.getCAR_Starting_Angle());
+        }
+    }
 
     /**
-     * Instantiates the appropriate map objects based on the selected map name retrieved from CurrentGameSession
+     * Steps a headless game on the calling thread, without any frame pacing (as fast as possible).
+     * @param ticks The number of ticks to run.
+     * @return The number of ticks actually run. This is less than requested if the game ended (cars crashed).
      */
-    private void InstantiateSelectedMap() {
-        if (Objects.equals(CurrentGameSession.get_SelectedMapName(), SharedResources.MSP_Maps[0])) {
-            CurrentGameSession.set_MapModel(new EasyMapML());
-            CurrentGameSession.set_MapView(new EasyMapVL());
-            return;
+    public int RunTicks(int ticks)
+    {
+        int i;
+        for (i = 0; i < ticks && _SimulationRunning; i++)
+        {
+            SimulateTick();
         }
+        return i;
+    }
+
+    /**
+     * Sets the speed of the game time compared to the wall clock. Can be changed while the game is running.
+     * Examples: 0.25 is slow motion, 1 is real time, 10 is ten times faster.
+     * SharedResources.FP_Unthrottled_Time_Scale (0) runs the ticks back to back as fast as possible, without pacing.
+     * The driving physics are not affected, as each tick simulates the same amount of game time.
+     * A headless game is always stepped by the caller (RunTicks), so this has no effect on it.
+     *
+     * @param timeScale The time scale. Must not be negative.
+     */
+    public void set_TimeScale(float timeScale)
+    {
+        if (timeScale < 0 || Float.isNaN(timeScale))
+            throw new IllegalArgumentException("The time scale must not be negative: " + timeScale);
+
+        _TimeScale = timeScale;
+        if (_FramePacer != null && timeScale != SharedResources.FP_Unthrottled_Time_Scale)
+            _FramePacer.set_TickLength(GetWallClockTickLength());
+    }
+
+    /**
+     * Returns the speed of the game time compared to the wall clock.
+     * @return The time scale. SharedResources.FP_Unthrottled_Time_Scale (0) if the ticks are run as fast as possible.
+     */
+    public float get_TimeScale()
+    {
+        return _TimeScale;
+    }
+
+    /**
+     * Returns the wall clock time between two ticks, according to the time scale.
+     * @return The wall clock time between two ticks in nanoseconds. 0 in unthrottled mode.
+     */
+    private long GetWallClockTickLength()
+    {
+        float timeScale = _TimeScale;
+        if (timeScale == SharedResources.FP_Unthrottled_Time_Scale)
+            return 0;
+        return Math.max(1, (long) (_TickLength / (double) timeScale));
+    }
+
+    /**
+     * Returns the number of ticks run since the game started.
+     * @return The number of ticks run.
+     */
+    public long get_TicksRun()
+    {
+        return _TicksRun;
+    }
+
+    /**
+     * Returns the game time simulated since the game started.
+     * @return The simulated game time in nanoseconds.
+     */
+    public long GetSimulatedTime()
+    {
+        return _TicksRun * _TickLength;
+    }
+
+    /**
+     * Returns the achieved simulation speed, measured over the last finished measuring window
+     * (SharedResources.FP_TicksPerSecond_Measuring_Window_Milliseconds).
+     * @return The ticks run per wall clock second. 0 until the first window finished.
+     */
+    public double get_AchievedTicksPerSecond()
+    {
+        return _AchievedTicksPerSecond;
+    }
+
+    /**
+     * Returns the game session (match) run by this engine.
+     * @return The game session run by this engine.
+     */
+    public GameSession get_Session()
+    {
+        return _Session;
+    }
+
+    /**
+     * Returns the event bus of this match, which delivers the in-game events to the subscribers once per tick.
+     * @return The event bus of this match.
+     */
+    public GameEventBus get_EventBus()
+    {
+        return _EventBus;
+    }
+
+    /**
+     * Returns the simulated time of one tick.
+     * @return The length of one tick in nanoseconds.
+     */
+    public long get_TickLength()
+    {
+        return _TickLength;
+    }
+
+    /**
+     * Returns if the game is still running.
+     * @return True if the game is running. False if it ended (e.g. cars crashed) or has been shut down.
+     */
+    public boolean IsGameRunning()
+    {
+        return _SimulationRunning;
+    }
+
+    /**
+     * Returns the state of the cars at the end of the last finished tick.
+     * The states are reused by the next ticks, so they must be read before the game is stepped again.
+     * @return The state of the cars in the order of the players.
+     */
+    public CarState[] get_LatestFrame()
+    {
+        return _LatestFrame.Cars;
+    }
+
+    /**
+     * The simulation loop. Runs the game ticks with a fixed rate (the tick length of the session scaled by the time scale) until the game ends.
+     * If the loop falls behind (e.g. the thread did not get CPU time), the missed ticks are run back to back
+     * (up to the FramePacer's catch-up limit), so the game time does not get stretched.
+     * In unthrottled mode the ticks are run back to back, and the pacing restarts when the mode is left.
+     */
+    private void RunSimulationLoop()
+    {
+        _FramePacer.Start();
+        boolean paced = true;
+
+        while (_SimulationRunning)
+        {
+            if (_TimeScale == SharedResources.FP_Unthrottled_Time_Scale)
+            {
+                SimulateTick();
+                paced = false;
+                continue;
+            }
+
+            if (!paced)
+            {
+                _FramePacer.set_TickLength(GetWallClockTickLength());
+                _FramePacer.Start(); //Do not count the unthrottled period as missed ticks
+                paced = true;
+            }
+
+            int ticks;
+            try
+            {
+                ticks = _FramePacer.WaitForNextTicks();
+            }
+            catch (InterruptedException e)
+            {
+                return; //The game has been shut down
+            }
 
-        if (Objects.equals(CurrentGameSession.get_SelectedMapName(), SharedResources.MSP_Maps[1])) {
-            CurrentGameSession.set_MapModel(new MediumMapML());
-            CurrentGameSession.set_MapView(new MediumMapVL());
+            for (int i = 0; i < ticks && _SimulationRunning; i++)
+            {
+                SimulateTick();
+            }
         }
     }
 
+    /**
+     * Returns the frame pacer of the simulation loop, which reports the late and dropped ticks.
+     * @return The frame pacer. Null in headless mode, as the headless game is not paced.
+     */
+    public FramePacer get_FramePacer()
+    {
+        return _FramePacer;
+    }
+
+    /**
+     * Runs one game tick: captures the keyboard input of each car, moves all cars and checks for collisions.
+     * When finished, publishes the new frame, so it can be displayed by the EDT,
+     * and hands the events of the tick over to the event bus for delivery.
+     */
+    private void SimulateTick()
+    {
+        synchronized (_SimulationLock)
+        {
+            ArrayList<Player> players = _Session.get_CurrentPlayers();
+            for (int i = 0; i < players.size(); i++)
+            {
+                Car car = players.get(i).get_Car();
+                car.CalculateNextFrame(car.CaptureKeyboardInput());
+                if (!_SimulationRunning)
+                    break; //The game ended during this tick (cars crashed)
+            }
+            if (_SimulationRunning)
+                PublishFrame();
+            _EventBus.EndTick();
+        }
+        CountTick();
+    }
 
+    /**
+     * Counts a finished tick, and measures the achieved ticks per second when the measuring window is over.
+     * Only called by the thread running the ticks.
+     */
+    private void CountTick()
+    {
+        _TicksRun++;
+        _RateWindowTicks++;
+
+        long now = System.nanoTime();
+        long elapsed = now - _RateWindowStart;
+        if (elapsed >= _RateWindowLength)
+        {
+            _AchievedTicksPerSecond = _RateWindowTicks * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            _RateWindowStart = now;
+            _RateWindowTicks = 0;
+        }
+    }
+
+    /**
+     * Creates the three frames which are reused in turn by PublishFrame, with the car states of each.
+     * The previous car states of a frame are the car states of the frame before it in the ring, so they are never copied.
+     */
+    private void CreateFrames()
+    {
+        int carCount = _Session.get_CurrentPlayers().size();
+        CarState[][] states = new CarState[3][carCount];
+        for (int f = 0; f < states.length; f++)
+        {
+            for (int i = 0; i < carCount; i++)
+            {
+                states[f][i] = new CarState(0, 0, 0, 0);
+            }
+        }
+
+        _Frames = new SimulationFrame[states.length];
+        for (int f = 0; f < _Frames.length; f++)
+        {
+            _Frames[f] = new SimulationFrame(states[f], states[(f + states.length - 1) % states.length], 0);
+        }
+        _NextFrame = 0;
+        _LatestFrame = null;
+    }
+
+    /**
+     * Captures the state of all cars as a finished frame, which can be displayed by the EDT.
+     * The previous frame's car states are kept in the new frame, so the EDT can interpolate between them.
+     * The frame is written into the oldest of the three reused frames, which is neither the latest frame
+     * nor the one holding its previous states, so no objects are allocated.
+     */
+    private void PublishFrame()
+    {
+        ArrayList<Player> players = _Session.get_CurrentPlayers();
+        SimulationFrame frame = _Frames[_NextFrame];
+        for (int i = 0; i < frame.Cars.length; i++)
+        {
+            players.get(i).get_Car().CaptureState(frame.Cars[i]);
+        }
+
+        if (_LatestFrame == null)
+        {
+            //The very first frame: the previous states are the same as the current ones
+            for (int i = 0; i < frame.Cars.length; i++)
+            {
+                CarState state = frame.Cars[i];
+                frame.PreviousCars[i].Set(state.X, state.Y, state.AngleIndex, state.VirtualSpeed);
+            }
+        }
+
+        frame.FinishedAt = System.nanoTime();
+        _LatestFrame = frame;
+        _NextFrame = (_NextFrame + 1) % _Frames.length;
+    }
+
+    /**
+     * Called on the EDT each time the render timer ticks.
+     * Asks the top level JFrame to display the latest finished frame, interpolated to the current time.
+     * The interpolation factor is the time elapsed since the frame finished, relative to the (wall clock) length of a tick.
+     * In unthrottled mode the latest frame is displayed without interpolation.
+     * @param e The ActionEvent.
+     */
     @Override
     public void actionPerformed(ActionEvent e)
     {
-        if(e.getSource() == _FrameRateTimer) {
-            //When the timer ticks, ask the top level JFrame to update the screen.
-            _UICore.UpdateInGameScreen();
+        if (e.getSource() == _RenderTimer && _SimulationRunning)
+        {
+            SimulationFrame frame = _LatestFrame;
+            long tickLength = GetWallClockTickLength();
+            float alpha = tickLength == 0 ? 1f : (float) (System.nanoTime() - frame.FinishedAt) / tickLength;
+            _UICore.UpdateInGameScreen(frame, Math.max(0f, Math.min(1f, alpha)));
         }
     }
 
     /**
-     * Called when a car hits an another non-car object on the map (wall, tree etc).
-     * This will order the SoundEngine to play an impact sound effect if the sounds are enabled by the user
+     * Handles a control key press for a car. Called on the EDT.
+     * The simulation lock is held, so the car is not modified by the simulation thread at the same time.
+     * @param car The car which is controlled by the pressed key.
+     * @param keyCode The keycode of the pressed key.
      */
-    public void CarImpactOccurred()
+    public void ControlKeyPressed(Car car, int keyCode)
     {
-        if (SharedResources.DGO_Default_Sound_On)
+        synchronized (_SimulationLock)
         {
-            _SoundEngine.PlayCarImpactSound();
+            if (_SimulationRunning)
+                car.HandlePressedKey(keyCode);
         }
     }
 
     /**
-     * Called when a car accelerates.
-     * This will order the SoundEngine to play an acceleration sound effect if the sounds are enabled by the user.
+     * Handles a control key release for a car. Called on the EDT.
+     * @param car The car which was controlled by the released key.
+     * @param keyCode The keycode of the released key.
      */
-    public void CarAccelerationOccurred()
+    public void ControlKeyReleased(Car car, int keyCode)
     {
-        if (SharedResources.DGO_Default_Sound_On)
+        synchronized (_SimulationLock)
         {
-            _SoundEngine.SetCarAccelerateSound(true);
+            car.HandleReleasedKey(keyCode);
+        }
+    }
+
+
+    /**
+     * Instantiates the appropriate map objects based on the selected map name retrieved from _Session.
+     * The view layer object of the map is not instantiated in headless mode.
+     */
+    private void InstantiateSelectedMap() {
+        if (Objects.equals(_Session.get_SelectedMapName(), SharedResources.MSP_Maps[0])) {
+            _Session.set_MapModel(new EasyMapML());
+            if (!_Headless)
+                _Session.set_MapView(new EasyMapVL());
+            return;
+        }
+
+        if (Objects.equals(_Session.get_SelectedMapName(), SharedResources.MSP_Maps[1])) {
+            _Session.set_MapModel(new MediumMapML());
+            if (!_Headless)
+                _Session.set_MapView(new MediumMapVL());
         }
     }
 
+
+    /**
+     * Called when a car hits an another non-car object on the map (wall, tree etc).
+     * Records an impact event, which is delivered to the subscribers (e.g. the SoundEngine) at the end of the tick.
+     * @param car The car which hit the object.
+     */
+    public void CarImpactOccurred(Car car)
+    {
+        _EventBus.Post(GameEventType.CAR_IMPACT, car);
+    }
+
+    /**
+     * Called when a car accelerates.
+     * Records an acceleration event, which is delivered to the subscribers (e.g. the SoundEngine) at the end of the tick.
+     * @param car The accelerating car.
+     */
+    public void CarAccelerationOccurred(Car car)
+    {
+        _EventBus.Post(GameEventType.CAR_ACCELERATION, car);
+    }
+
     /**
      * Called when a car stopped accelerating.
-     * This will order the SoundEngine to stop playing the acceleration sound effect if the sounds are enabled by the user.
+     * Records an acceleration stopped event, which is delivered to the subscribers (e.g. the SoundEngine) at the end of the tick.
+     * @param car The car which stopped accelerating.
      */
-    public void CarAccelerationStopped()
+    public void CarAccelerationStopped(Car car)
     {
-        if (SharedResources.DGO_Default_Sound_On)
-        {
-            _SoundEngine.SetCarAccelerateSound(false);
-        }
+        _EventBus.Post(GameEventType.CAR_ACCELERATION_STOPPED, car);
     }
 
     /**
      * Called when two cars collide with each other.
-     * This will stop the frame rate triggering timer, asks the sound engine to play a crush sound (if sound is on),
-     * and orders the top level JFrame to change the car image containing JLabels icon to a crashed car image.
+     * This will stop the simulation immediately, and record a crash event (e.g. the SoundEngine plays the crash sound for it).
+     * If not in headless mode, on the EDT orders the top level JFrame to change the car image containing JLabels icon to a crashed car image.
      * Finally it calls the Main Controller as the game is ended.
+     * @param car The car which crashed into an other car.
      */
-    public void CarCrashOccurred()
+    public void CarCrashOccurred(Car car)
     {
-        _FrameRateTimer.stop();
-        _UICore.get_InGameScreen().SetCarLabelImagesCrashed();
+        _SimulationRunning = false;
+        _EventBus.Post(GameEventType.CAR_CRASH, car);
+        if (!_Headless)
+            SwingUtilities.invokeLater(this::DisplayCarCrash);
+    }
 
-        if (SharedResources.DGO_Default_Sound_On)
-        {
-            _SoundEngine.PlayCarCrashSound();
-        }
+    /**
+     * Called on the EDT after two cars collided. Displays the crashed cars and ends the game.
+     */
+    private void DisplayCarCrash()
+    {
+        _RenderTimer.stop();
+        if (_UICore.get_InGameScreen() == null)
+            return; //The game has been shut down in the meantime
 
+        _UICore.get_InGameScreen().SetCarLabelImagesCrashed();
         GameOver();
     }
 
 
     /**
-     *  Stops the frame rate triggering timer, orders the top level JFrame to show a popup message to the
+     *  Stops the simulation, orders the top level JFrame to show a popup message to the
      *  user about the game is being ended. Asks the JFrame to destroy (dereference) the InGameScreen JPanel.
      *  Finally, notifies the main controller that the game is over.
      */
     private void GameOver()
     {
-        _FrameRateTimer.stop();
+        StopSimulation();
         _UICore.DisplayGameOverPopup();
         _UICore.DestroyInGameScreen();
         SharedResources.MainController.NavigatingBackToMainMenuScreen();
     }
 
     /**
-     * Stops the frame rate triggering timer, and orders the top level JFrame to
+     * Stops the simulation thread, and (if not in headless mode) orders the top level JFrame to
      * destroy (dereference) the InGameScreen JPanel.
      */
     public void ShutDown()
     {
-        _FrameRateTimer.stop();
-        _UICore.DestroyInGameScreen();
+        StopSimulation();
+        if (!_Headless)
+            _UICore.DestroyInGameScreen();
+    }
+
+    /**
+     * Stops the render timer and the simulation loop, and waits until the simulation thread exits.
+     * Finally stops the event delivery (the events of the last tick are still delivered).
+     */
+    private void StopSimulation()
+    {
+        _SimulationRunning = false;
+        if (_RenderTimer != null)
+            _RenderTimer.stop();
+        if (_SimulationThread != null && _SimulationThread != Thread.currentThread())
+        {
+            _SimulationThread.interrupt();
+            try
+            {
+                _SimulationThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        _EventBus.ShutDown();
     }
 }
@@ -0,0 +1,53 @@
+package ControlLayer;
+
+import ModelLayer.Car;
+import ModelLayer.Enumerations.GameEventType;
+
+/**
+ * An in-game event (impact, acceleration, crash etc.) of a car.
+ * The GameEventBus reuses the events once they have been delivered, so a subscriber must not keep them after OnGameEvents returned.
+ * This class is used as a simple structure.
+ */
+public class GameEvent
+{
+    /**
+     * The type of the event.
+     */
+    public GameEventType Type;
+
+    /**
+     * The car the event happened with.
+     */
+    public Car Source;
+
+    /**
+     * The tick the event happened in. Ticks are counted from the start of the game, starting from 0.
+     */
+    public long Tick;
+
+    /**
+     * An in-game event of a car.
+     *
+     * @param type   The type of the event.
+     * @param source The car the event happened with.
+     * @param tick   The tick the event happened in.
+     */
+    public GameEvent(GameEventType type, Car source, long tick)
+    {
+        Set(type, source, tick);
+    }
+
+    /**
+     * Overwrites the event (when it is reused for a new tick).
+     *
+     * @param type   The type of the event.
+     * @param source The car the event happened with.
+     * @param tick   The tick the event happened in.
+     */
+    void Set(GameEventType type, Car source, long tick)
+    {
+        Type = type;
+        Source = source;
+        Tick = tick;
+    }
+}
@@ -0,0 +1,243 @@
+package ControlLayer;
+
+import ModelLayer.Car;
+import ModelLayer.Enumerations.GameEventType;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects the in-game events (impacts, accelerations, crashes) of one match during a tick,
+ * and delivers them to the subscribers (sound, HUD, telemetry, network etc.) once per tick.
+ * The same event of the same car is recorded only once per tick (e.g. a car touching a wall is one impact per tick).
+ * The delivery happens on a separate thread, so the simulation does not wait for the subscribers (e.g. audio clip operations).
+ * The events of a tick are delivered in the order they happened, and the ticks are delivered in order.
+ * The events of a tick are recorded into a buffer of a ring (SharedResources.GEB_Buffered_Ticks ticks long). The buffer is handed over
+ * to the delivery thread at the end of its tick, and reused once it has been delivered, so recording the events does not allocate
+ * objects. If the simulation gets a whole ring ahead of the subscribers (e.g. an unthrottled match with a slow subscriber),
+ * it waits for the oldest tick to be delivered, so the memory of the pending events is bounded.
+ */
+public class GameEventBus
+{
+    private final List<GameEventListener> _Listeners = new CopyOnWriteArrayList<>(); //The subscribers
+    private TickEvents[] _Ring = {new TickEvents()}; //The buffers of the ticks in progress and waiting for delivery (the full ring is created when the first subscriber is added)
+    private int _Head; //The index of the buffer of the tick in progress
+    private int _PendingCount; //The number of the closed ticks waiting for delivery, in the buffers before the head
+    private long _Tick; //The number of the tick in progress
+    private Thread _DeliveryThread; //Delivers the events to the subscribers. Created when the first subscriber is added.
+    private boolean _ShuttingDown; //True when the delivery thread needs to exit (after delivering the pending ticks)
+
+    /**
+     * Adds a subscriber, which is notified once per tick about the events of the tick.
+     * @param listener The subscriber.
+     */
+    public synchronized void Subscribe(GameEventListener listener)
+    {
+        _Listeners.add(listener);
+        if (_DeliveryThread == null)
+        {
+            TickEvents[] ring = new TickEvents[SharedResources.GEB_Buffered_Ticks];
+            ring[0] = _Ring[_Head]; //Keeps the events of the tick in progress
+            for (int i = 1; i < ring.length; i++)
+                ring[i] = new TickEvents();
+            _Ring = ring;
+            _Head = 0;
+            _DeliveryThread = new Thread(this::RunDelivery, SharedResources.APPLICATIONNAME + " event delivery");
+            _DeliveryThread.setDaemon(true);
+            _DeliveryThread.start();
+        }
+    }
+
+    /**
+     * Removes a subscriber.
+     * @param listener The subscriber.
+     */
+    public void Unsubscribe(GameEventListener listener)
+    {
+        _Listeners.remove(listener);
+    }
+
+    /**
+     * Records an event of a car for the tick in progress. Does nothing if the same event of the same car
+     * has already been recorded in this tick.
+     *
+     * @param type   The type of the event.
+     * @param source The car the event happened with.
+     */
+    public synchronized void Post(GameEventType type, Car source)
+    {
+        TickEvents tickEvents = _Ring[_Head];
+        for (int i = 0; i < tickEvents.size(); i++)
+        {
+            GameEvent event = tickEvents.get(i);
+            if (event.Type == type && event.Source == source)
+                return;
+        }
+        tickEvents.Add(type, source, _Tick);
+    }
+
+    /**
+     * Closes the tick in progress: hands its events over to the delivery thread (if there were any), and starts a new tick.
+     * Called by the GameEngine at the end of each tick.
+     * Waits for the delivery only if all the buffers of the ring are waiting for delivery.
+     */
+    public synchronized void EndTick()
+    {
+        _Tick++;
+        if (_Ring[_Head].isEmpty())
+            return;
+
+        if (_DeliveryThread == null || _Listeners.isEmpty() || _ShuttingDown)
+        {
+            _Ring[_Head].Clear(); //Nobody is listening (e.g. headless match)
+            return;
+        }
+
+        _PendingCount++;
+        _Head = (_Head + 1) % _Ring.length;
+        notifyAll();
+
+        //The next buffer is the oldest pending tick if the ring is full. It must be delivered before it is written again,
+        //so an interrupt (e.g. the game is shut down) is only kept for the caller. The delivery frees the buffer even when shutting down.
+        boolean interrupted = false;
+        while (_PendingCount == _Ring.length)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * The delivery loop: waits for the closed ticks, delivers them in order, and frees their buffers for reuse.
+     * Runs on the delivery thread until the event bus is shut down and all the pending ticks are delivered.
+     */
+    private void RunDelivery()
+    {
+        while (true)
+        {
+            TickEvents events;
+            synchronized (this)
+            {
+                while (_PendingCount == 0)
+                {
+                    if (_ShuttingDown)
+                        return;
+                    try
+                    {
+                        wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        _ShuttingDown = true;
+                        return;
+                    }
+                }
+                events = _Ring[(_Head - _PendingCount + _Ring.length) % _Ring.length]; //The oldest pending tick
+            }
+
+            Deliver(events);
+
+            synchronized (this)
+            {
+                events.Clear();
+                _PendingCount--;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Delivers the events of one tick to all subscribers. Called on the delivery thread.
+     * A failing subscriber does not stop the delivery to the others (or of the next ticks).
+     * @param events The events of one tick.
+     */
+    private void Deliver(List<GameEvent> events)
+    {
+        for (GameEventListener listener : _Listeners)
+        {
+            try
+            {
+                listener.OnGameEvents(events);
+            }
+            catch (RuntimeException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Stops the delivery thread. The events already handed over are still delivered.
+     */
+    public synchronized void ShutDown()
+    {
+        _ShuttingDown = true;
+        notifyAll();
+    }
+
+    /**
+     * The events of one tick, in the order they happened. The event objects are created with the buffer, kept when the buffer
+     * is cleared, and overwritten by the next events, so a reused buffer does not allocate (unless a tick has more events than ever before).
+     * Read-only for the subscribers (it is handed over to them as a List).
+     */
+    private static class TickEvents extends AbstractList<GameEvent>
+    {
+        private GameEvent[] _Events = new GameEvent[4]; //The events (the ones from the count on are reusable leftovers)
+        private int _Count; //The number of the events of the tick
+
+        /**
+         * Creates an empty buffer with its event objects.
+         */
+        TickEvents()
+        {
+            for (int i = 0; i < _Events.length; i++)
+                _Events[i] = new GameEvent(null, null, 0);
+        }
+
+        /**
+         * Records an event, reusing a leftover event object if there is one.
+         */
+        void Add(GameEventType type, Car source, long tick)
+        {
+            if (_Count == _Events.length)
+                _Events = Arrays.copyOf(_Events, _Count * 2);
+            if (_Events[_Count] == null)
+                _Events[_Count] = new GameEvent(type, source, tick);
+            else
+                _Events[_Count].Set(type, source, tick);
+            _Count++;
+        }
+
+        /**
+         * Removes all the events, keeping the event objects for reuse.
+         */
+        void Clear()
+        {
+            _Count = 0;
+        }
+
+        @Override
+        public GameEvent get(int index)
+        {
+            if (index < 0 || index >= _Count)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _Count);
+            return _Events[index];
+        }
+
+        @Override
+        public int size()
+        {
+            return _Count;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ControlLayer;
+
+import java.util.List;
+
+/**
+ * Subscriber of the GameEventBus (e.g. sound, HUD, telemetry, network).
+ */
+public interface GameEventListener
+{
+    /**
+     * Called once per tick with the events of the tick, in the order they happened.
+     * Called on the event delivery thread of the GameEventBus, not on the simulation thread.
+     * The list and its events are reused for later ticks after this returns, so they must not be kept.
+     *
+     * @param events The events of one tick. Never empty.
+     */
+    void OnGameEvents(List<GameEvent> events);
+}
@@ -0,0 +1,214 @@
+package ControlLayer;
+
+import ModelLayer.CollisionManagement.CollisionManager;
+import ModelLayer.Enumerations.GameMode;
+import ModelLayer.FileLoaders.CarProfileLoader;
+import ModelLayer.MapML.MapModel;
+import ModelLayer.Player;
+import ModelLayer.TickPhysics;
+import ViewLayer.MapVL.MapView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents one game session (match), containing references to all the participant objects and related game settings.
+ * Each match has its own instance, which is passed explicitly to the objects taking part in it (GameEngine, Car etc.),
+ * so one process can host any number of independent matches at the same time.
+ */
+public class GameSession
+{
+    private GameMode _GameMode = GameMode.NONE; //The selected game mode in the Main Menu (Single player, side-by-side etc.)
+    private ArrayList<Player> _CurrentPlayers; //Contains the instantiated player objects (1 or 2 instances)
+    private String _SelectedMapName; //The string name of the selected map, based on SharedResources.MSP_Maps (Easy, Medium)
+    private CollisionManager _CollisionManager; //Instance of the CollisionManager that calculates the collisions
+    private MapView _MapView; //The view layer object of the selected map (this draws on screen)
+    private MapModel _MapModel; //The model layer object of the selected map (this contains the MapObjects needed for collision detection)
+    private GameEngine _GameEngine; //The GameEngine which runs the game (with or without the Swing UI)
+    private TickPhysics _TickPhysics = new TickPhysics(TimeUnit.MILLISECONDS.toNanos(SharedResources.FRAMERATE)); //The driving physics converted to the tick length of the match
+    private final HashMap<Integer, TickPhysics> _CarTickPhysics = new HashMap<>(); //The driving physics of each car (by car image index) converted to the tick length of the match
+    private boolean _DeterministicPhysics = SharedResources.GCS_Deterministic_Physics_Default; //True to simulate the cars and collisions with fixed-point integer arithmetic
+
+    /**
+     * Getter for the GameEngine.
+     * @return The GameEngine which runs the current game. Null if no game is running.
+     */
+    public GameEngine get_GameEngine() {
+        return _GameEngine;
+    }
+
+    /**
+     * Setter for the GameEngine. This is called by the GameEngine when the game starts.
+     * @param _GameEngine The GameEngine which runs the current game.
+     */
+    public void set_GameEngine(GameEngine _GameEngine) {
+        this._GameEngine = _GameEngine;
+    }
+
+    /**
+     * Returns the simulated time of one tick of the match.
+     * @return The length of one tick in nanoseconds.
+     */
+    public long get_TickLength() {
+        return _TickPhysics.TickLength;
+    }
+
+    /**
+     * Sets the simulated time of one tick of the match (e.g. 50ms for a 20 Hz server, 8.3ms for a 120 Hz client).
+     * The driving physics are converted to the new tick length, so the handling of the cars stays the same.
+     * Must be set before the game starts.
+     * @param tickLength The length of one tick in nanoseconds. Must be positive.
+     */
+    public void set_TickLength(long tickLength) {
+        if (tickLength <= 0)
+            throw new IllegalArgumentException("The tick length must be positive: " + tickLength);
+        _TickPhysics = new TickPhysics(tickLength);
+        _CarTickPhysics.clear();
+    }
+
+    /**
+     * Returns the default driving physics constants converted to the tick length of the match.
+     * @return The driving physics of one tick.
+     */
+    public TickPhysics get_TickPhysics() {
+        return _TickPhysics;
+    }
+
+    /**
+     * Returns the driving physics of a car (its handling profile) converted to the tick length of the match.
+     * The profile is converted only once per match, as the cars of both players may be the same.
+     * @param carImageIndex The index number of the selected car. Starts from 0.
+     * @return The driving physics of one tick. The default physics if the car has no profile.
+     * @throws IllegalArgumentException If the profile of the car is invalid (see CarProfileLoader.LoadCarProfile).
+     */
+    public TickPhysics GetCarTickPhysics(int carImageIndex) {
+        if (carImageIndex < 0)
+            return _TickPhysics;
+        return _CarTickPhysics.computeIfAbsent(carImageIndex,
+                index -> new TickPhysics(_TickPhysics.TickLength, CarProfileLoader.LoadCarProfile(index)));
+    }
+
+    /**
+     * Returns if the match is simulated with deterministic (fixed-point integer) physics.
+     * @return True if the cars and the collisions are calculated with fixed-point integer arithmetic.
+     */
+    public boolean get_DeterministicPhysics() {
+        return _DeterministicPhysics;
+    }
+
+    /**
+     * Sets if the match is simulated with deterministic (fixed-point integer) physics.
+     * Deterministic matches give bit-identical results on every machine, so they can be replicated by sending only the inputs,
+     * and replays can be verified. Must be set before the game starts.
+     * @param _DeterministicPhysics True to calculate the cars and the collisions with fixed-point integer arithmetic.
+     */
+    public void set_DeterministicPhysics(boolean _DeterministicPhysics) {
+        this._DeterministicPhysics = _DeterministicPhysics;
+    }
+
+    /**
+     * Getter for the MapView
+     *
+     * @return The view layer object of the selected map. This is returned as the general parent MapModel.
+     */
+    public MapView get_MapView() {
+        return _MapView;
+    }
+
+    /**
+     * Setter for the MapView. This is called by the GameEngine.
+     * @param _MapView A child of the MapView parent, which represents the view layer of a map.
+     */
+    public void set_MapView(MapView _MapView) {
+        this._MapView = _MapView;
+    }
+
+    /**
+     * Getter for the MapModel.
+     * @return A child of the MapModel parent, which represents the model layer of a map.
+     */
+    public MapModel get_MapModel() {
+        return _MapModel;
+    }
+
+    /**
+     * Setter for the MapModel.
+     * @param _MapModel A child of the MapModel parent, which represent the model layer of a map.
+     */
+    public void set_MapModel(MapModel _MapModel) {
+        this._MapModel = _MapModel;
+    }
+
+    /**
+     * Returns the currently set game mode (single player, side by side etc.)
+     * @return Returns the currently set game mode as an enumeration.
+     */
+    public GameMode get_GameMode() {
+        return _GameMode;
+    }
+
+    /**
+     * Sets the game mode and instantiates the Player object(s) accordingly.
+     * @param _GameMode The game mode to be set for.
+     */
+    public void set_GameMode(GameMode _GameMode) {
+        this._GameMode = _GameMode;
+        switch (_GameMode) {
+            case NONE:
+                break;
+            case SINGLEPLAYER:
+                _CurrentPlayers = new ArrayList<>();
+                _CurrentPlayers.add(new Player("Player 1", this));
+                break;
+            case SIDEBYSIDE:
+                _CurrentPlayers = new ArrayList<>();
+                _CurrentPlayers.add(new Player("Player 1", this));
+                _CurrentPlayers.add(new Player("Player 2", this));
+                break;
+            case MULTIPLAYER:
+                break;
+        }
+    }
+
+    /**
+     * Getter for the CurrentPlayers
+     * @return Returns a list of Player objects. This list could contain 1 or 2 players.
+     */
+    public ArrayList<Player> get_CurrentPlayers() {
+        return _CurrentPlayers;
+    }
+
+    /**
+     * Getter for the SelectedMap
+     * @return The string name of the selected map, based on SharedResources.MSP_Maps (Easy, Medium)
+     */
+    public String get_SelectedMapName() {
+        return _SelectedMapName;
+    }
+
+    /**
+     * Setter for the Selected map.
+     * @param _SelectedMapName Must be a string name of the selected map, based on SharedResources.MSP_Maps (Easy, Medium)
+     */
+    public void set_SelectedMapName(String _SelectedMapName)
+    {
+        this._SelectedMapName = _SelectedMapName;
+    }
+
+    /**
+     * Returns the only CollisionManager object instance of the game, which is used to calculate collisions
+     * @return Returns the only CollisionManager object instance of the game.
+     */
+    public CollisionManager get_CollisionManager() {
+        return _CollisionManager;
+    }
+
+    /**
+     * Setter for the CollisionManager. Called by the GameEngine.
+     * @param _CollisionManager The CollisionManager instance to use.
+     */
+    public void set_CollisionManager(CollisionManager _CollisionManager) {
+        this._CollisionManager = _CollisionManager;
+    }
+}
@@ -0,0 +1,346 @@
+package ControlLayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ticks many headless GameEngine matches in one process, using all the CPU cores.
+ * Each match keeps its own tick deadline. A dispatcher thread collects the matches which are due, and hands them
+ * over to a work-stealing ForkJoinPool, so idle cores take over the work of busy ones when some matches are heavier.
+ * A match is never ticked on two threads at the same time: it is re-queued only after its tick finished.
+ * A match whose tick throws an exception is stopped and marked as failed (see ScheduledMatch.get_Failure), the other matches keep running.
+ * Reports the tick latency for each match (deadline to tick finished) and the overall core utilisation.
+ */
+public class MatchScheduler
+{
+    private final ForkJoinPool _Pool; //The work-stealing pool which runs the ticks
+    private final DelayQueue<ScheduledMatch> _Queue = new DelayQueue<>(); //The matches waiting for their next deadline
+    private final List<ScheduledMatch> _Matches = new ArrayList<>(); //All the matches added to the scheduler (including the finished ones)
+    private final AtomicLong _BusyTime = new AtomicLong(); //The total time spent with running ticks on all cores, in nanoseconds
+    private Thread _Dispatcher; //The thread which hands the due matches over to the pool
+    private volatile boolean _Running; //False when the dispatcher needs to exit
+    private long _StartedAt; //The time when the scheduler started, as returned by System.nanoTime
+
+    /**
+     * Ticks many headless GameEngine matches in one process, using as many threads as there are CPU cores.
+     */
+    public MatchScheduler()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ticks many headless GameEngine matches in one process.
+     *
+     * @param parallelism The number of threads (cores) to use for running the ticks.
+     */
+    public MatchScheduler(int parallelism)
+    {
+        _Pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Adds a match to the scheduler. Its first tick is due one tick length from now.
+     * The match is removed automatically when its game ends, or when one of its ticks fails.
+     *
+     * @param engine A started, headless GameEngine.
+     * @return The scheduled match, which reports the tick latency statistics of the match.
+     */
+    public synchronized ScheduledMatch AddMatch(GameEngine engine)
+    {
+        ScheduledMatch match = new ScheduledMatch(engine);
+        _Matches.add(match);
+        _Queue.add(match);
+        return match;
+    }
+
+    /**
+     * Starts the dispatcher thread, which starts ticking the matches.
+     */
+    public void Start()
+    {
+        _StartedAt = System.nanoTime();
+        _Running = true;
+        _Dispatcher = new Thread(this::RunDispatcher, SharedResources.APPLICATIONNAME + " match scheduler");
+        _Dispatcher.setDaemon(true);
+        _Dispatcher.start();
+    }
+
+    /**
+     * Stops ticking the matches. Waits for the ticks in progress to finish.
+     */
+    public void ShutDown()
+    {
+        _Running = false;
+        if (_Dispatcher != null)
+        {
+            _Dispatcher.interrupt();
+            try
+            {
+                _Dispatcher.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        _Pool.shutdown();
+        _Pool.awaitQuiescence(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The dispatcher loop. Waits for the next due match, collects all the other due matches as well,
+     * and hands them over to the pool as one batch (which is split up between the cores by work stealing).
+     */
+    private void RunDispatcher()
+    {
+        while (_Running)
+        {
+            ArrayList<ScheduledMatch> due = new ArrayList<>();
+            try
+            {
+                due.add(_Queue.take());
+            }
+            catch (InterruptedException e)
+            {
+                return; //The scheduler has been shut down
+            }
+            _Queue.drainTo(due);
+            _Pool.execute(new TickBatch(due, 0, due.size()));
+        }
+    }
+
+    /**
+     * Returns the pool which runs the ticks, so the work of a tick can be spread on the same threads instead of competing
+     * with them (e.g. CollisionManager.EvaluateCandidates).
+     * @return The work-stealing pool of the scheduler.
+     */
+    public ForkJoinPool get_Pool()
+    {
+        return _Pool;
+    }
+
+    /**
+     * Returns the matches added to the scheduler (including the finished ones).
+     * @return A copy of the list of the scheduled matches.
+     */
+    public synchronized List<ScheduledMatch> get_Matches()
+    {
+        return new ArrayList<>(_Matches);
+    }
+
+    /**
+     * Returns the ratio of the time the cores spent with running ticks, since the scheduler started.
+     * @return The core utilisation between 0 and 1 (e.g. 0.25 means the cores were busy 25% of the time).
+     */
+    public double GetCoreUtilisation()
+    {
+        long elapsed = System.nanoTime() - _StartedAt;
+        if (elapsed <= 0)
+            return 0;
+        return (double) _BusyTime.get() / ((double) elapsed * _Pool.getParallelism());
+    }
+
+    /**
+     * A batch of due matches. Split up recursively until one match is left, so the idle cores can steal the halves.
+     */
+    private class TickBatch extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; //RecursiveAction is Serializable, although the batches are never serialized
+        private final List<ScheduledMatch> _Due; //The due matches
+        private final int _From; //The first match of this batch (inclusive)
+        private final int _To; //The last match of this batch (exclusive)
+
+        /**
+         * A batch of due matches.
+         *
+         * @param due  The due matches.
+         * @param from The index of the first match of this batch (inclusive).
+         * @param to   The index of the last match of this batch (exclusive).
+         */
+        TickBatch(List<ScheduledMatch> due, int from, int to)
+        {
+            _Due = due;
+            _From = from;
+            _To = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (_To - _From == 1)
+            {
+                RunTick(_Due.get(_From));
+                return;
+            }
+
+            int middle = (_From + _To) >>> 1;
+            invokeAll(new TickBatch(_Due, _From, middle), new TickBatch(_Due, middle, _To));
+        }
+    }
+
+    /**
+     * Runs one tick of a match, records its statistics, and re-queues it for its next deadline (unless its game ended).
+     * If the tick fails, the match is stopped and marked as failed instead, so the failure does not escape the batch
+     * (where it would cancel the ticks of the other matches and leave the match unscheduled without a trace).
+     *
+     * @param match The due match.
+     */
+    private void RunTick(ScheduledMatch match)
+    {
+        long startedAt = System.nanoTime();
+        try
+        {
+            match._Engine.RunTicks(1);
+        }
+        catch (RuntimeException e)
+        {
+            e.printStackTrace();
+            _BusyTime.addAndGet(System.nanoTime() - startedAt);
+            match._Failure = e;
+            match._Engine.ShutDown();
+            return;
+        }
+        long finishedAt = System.nanoTime();
+
+        _BusyTime.addAndGet(finishedAt - startedAt);
+        match.RecordTick(finishedAt);
+
+        if (_Running && match._Engine.IsGameRunning())
+        {
+            _Queue.add(match);
+        }
+    }
+
+    /**
+     * A match ticked by the scheduler, with its own tick deadline and tick latency statistics.
+     * The latency of a tick is the time between its deadline and the time it finished.
+     */
+    public static class ScheduledMatch implements Delayed
+    {
+        private final GameEngine _Engine; //The headless engine of the match
+        private final long _TickLength; //The length of one tick of the match in nanoseconds
+        private long _Deadline; //The deadline of the next tick, as returned by System.nanoTime
+        private volatile long _TickCount; //The number of ticks run so far
+        private volatile long _DroppedTicks; //The number of ticks skipped, because the match fell behind more than the catch-up limit
+        private volatile long _TotalLatency; //The sum of the tick latencies in nanoseconds
+        private volatile long _MaxLatency; //The highest tick latency in nanoseconds
+        private volatile RuntimeException _Failure; //The exception thrown by the failed tick of the match, null if the match has not failed
+
+        /**
+         * A match ticked by the scheduler. The first tick is due one tick length from now.
+         *
+         * @param engine A started, headless GameEngine.
+         */
+        ScheduledMatch(GameEngine engine)
+        {
+            _Engine = engine;
+            _TickLength = engine.get_TickLength();
+            _Deadline = System.nanoTime() + _TickLength;
+        }
+
+        /**
+         * Records the statistics of a finished tick, and moves the deadline to the next tick.
+         * If the match fell behind more than the catch-up limit (SharedResources.FP_Max_CatchUp_Ticks), the missed ticks are dropped.
+         *
+         * @param finishedAt The time when the tick finished, as returned by System.nanoTime.
+         */
+        private void RecordTick(long finishedAt)
+        {
+            long latency = finishedAt - _Deadline;
+            _TickCount++;
+            _TotalLatency += latency;
+            _MaxLatency = Math.max(_MaxLatency, latency);
+
+            _Deadline += _TickLength;
+            long behind = (finishedAt - _Deadline) / _TickLength;
+            if (behind > SharedResources.FP_Max_CatchUp_Ticks)
+            {
+                _DroppedTicks += behind;
+                _Deadline += behind * _TickLength;
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return unit.convert(_Deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o)
+        {
+            return Long.compare(_Deadline, ((ScheduledMatch) o)._Deadline);
+        }
+
+        /**
+         * Returns the engine of the match.
+         * @return The headless GameEngine of the match.
+         */
+        public GameEngine get_Engine()
+        {
+            return _Engine;
+        }
+
+        /**
+         * Returns whether the match has been stopped, because one of its ticks failed.
+         * @return True if the match failed.
+         */
+        public boolean IsFailed()
+        {
+            return _Failure != null;
+        }
+
+        /**
+         * Returns the exception thrown by the failed tick of the match.
+         * @return The exception which stopped the match. Null if the match has not failed.
+         */
+        public RuntimeException get_Failure()
+        {
+            return _Failure;
+        }
+
+        /**
+         * Returns the number of ticks run so far (not counting a failed tick).
+         * @return The number of ticks run so far.
+         */
+        public long get_TickCount()
+        {
+            return _TickCount;
+        }
+
+        /**
+         * Returns the number of ticks skipped, because the match fell behind more than the catch-up limit.
+         * @return The number of dropped ticks.
+         */
+        public long get_DroppedTicks()
+        {
+            return _DroppedTicks;
+        }
+
+        /**
+         * Returns the average time between the deadline of a tick and the time it finished.
+         * @return The average tick latency in nanoseconds. 0 if no tick has run yet.
+         */
+        public long GetAverageTickLatency()
+        {
+            long ticks = _TickCount;
+            return ticks == 0 ? 0 : _TotalLatency / ticks;
+        }
+
+        /**
+         * Returns the highest time between the deadline of a tick and the time it finished.
+         * @return The highest tick latency in nanoseconds.
+         */
+        public long get_MaxTickLatency()
+        {
+            return _MaxLatency;
+        }
+    }
+}
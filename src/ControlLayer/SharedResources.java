@@ -14,7 +14,17 @@ public class SharedResources {
     public static final String APPLICATIONNAME = "DS Cars";
     public static final int PLAYER_1 = 1; //Magic number
     public static final int PLAYER_2 = 2; //Magic number
-    public static final int FRAMERATE = 40; //Delay in milliseconds between in-game frame refreshes. 40ms equals to 25 Frames Per Second.
+    public static final int FRAMERATE = 40; //Default delay in milliseconds between in-game simulation ticks. 40ms equals to 25 ticks per second. Can be changed per game session.
+    public static final int DEFAULT_DISPLAY_REFRESH_RATE = 60; //Screen refreshes per second, used when the display's refresh rate is unknown.
+    /*    Frame pacer settings (simulation tick timing) */
+    public static final int FP_Max_CatchUp_Ticks = 5; //The maximum number of missed ticks run back to back after a stall. Ticks above this are dropped.
+    public static final int FP_Spin_Threshold_Microseconds = 2000; //The pacer spins instead of sleeping when the next tick is closer than this.
+    public static final int FP_Late_Tick_Tolerance_Microseconds = 2000; //A tick started later than this after its deadline is reported as late.
+    public static final float FP_Default_Time_Scale = 1f; //The speed of the game time compared to the wall clock (e.g. 0.25 is slow motion, 10 is ten times faster)
+    public static final float FP_Unthrottled_Time_Scale = 0f; //The time scale meaning "as fast as possible": the ticks are run back to back, without pacing
+    public static final int FP_TicksPerSecond_Measuring_Window_Milliseconds = 1000; //The achieved ticks per second are measured over windows of this length
+    /*    Game event bus settings */
+    public static final int GEB_Buffered_Ticks = 256; //The number of ticks whose events can wait for delivery. The simulation waits for the subscribers only if it gets this far ahead of them.
     /*    Main window settings */
     public static final int MW_JFRAME_WIDTH = 850;
     public static final int MW_JFRAME_HEIGHT = 650;
@@ -53,8 +63,8 @@ public class SharedResources {
                     "\n" +
                     "1. Accelerate (Keys: up arrow for Player 1, 'W' for Player 2): \n" +
                     "    - Increases the speed of the car up to a specific limit.\n" +
-                    "    - The speed limit is virtually 100 mph if the car is on the racing track (road).\n" +
-                    "    - The speed limit is virtually 37 mph if the car is on the grass/field. \n" +
+                    "    - The speed limit depends on the selected car (each car has its own handling), and it is lower on the grass/field.\n" +
+                    "    - With the default handling, the speed limit is virtually 100 mph on the racing track (road) and 37 mph on the grass/field.\n" +
                     "    - The car accelerates faster when on low speeds, and slower as it reaches its peak.\n" +
                     "    - The car cannot accelerate if the reverse/break button is also pressed. \n" +
                     "    - A reversing car cannot be accelerated (forward).\n" +
@@ -63,17 +73,19 @@ public class SharedResources {
                     "2. Reverse / break (Keys: down arrow for Player 1, 'S' for Player 2)\n" +
                     "    - Increases the reverse speed.\n" +
                     "    - A forwarding car first gets slowed down, then the reversing takes place.\n" +
-                    "    - The speed limit of reversing is virtually 50 mph if the car is on the racing track (road)\n" +
-                    "    - The speed limit of reversing is virtually 37 mph if the car is the grass/field\n" +
+                    "    - The speed limit of reversing also depends on the selected car, and it is lower on the grass/field.\n" +
+                    "    - With the default handling, the speed limit of reversing is virtually 50 mph on the road and 37 mph on the grass/field.\n" +
                     "    - A car slows down and eventually stops if reverse is not pressed (unless forwarding).\n" +
                     "\n" +
                     "3. Turn left (Keys: left arrow for Player 1, 'A' for Player 2)\n" +
-                    "    - Turns the car’s angle with 22 degrees counter-clockwise.\n" +
+                    "    - Turns the car counter-clockwise. A press turns it by one step of its " + SharedResources.CAR_Simulated_Angle_Count + " angles.\n" +
+                    "    - Holding the key turns the car continuously, " + (int) SharedResources.GCS_Car_Turn_Rate_PerSecond + " degrees per second with the default handling.\n" +
                     "    - To improve playability, car can turn even if it is standing (unlike in real life)\n" +
                     "    - The car will not turn if turning would cause collision (a sound effect marks this).   \n" +
                     "\n" +
                     "4. Turn right (Keys: right arrow for Player 1, 'D' for Player 2)\n" +
-                    "    - Turns the car’s angle with 22 degrees clockwise.\n" +
+                    "    - Turns the car clockwise. A press turns it by one step of its " + SharedResources.CAR_Simulated_Angle_Count + " angles.\n" +
+                    "    - Holding the key turns the car continuously, " + (int) SharedResources.GCS_Car_Turn_Rate_PerSecond + " degrees per second with the default handling.\n" +
                     "    - To improve playability, car can turn even if it is standing (unlike in real life)\n" +
                     "    - The car will not turn if turning would cause collision (a sound effect marks this).   \n";
     public static final String MB_Help_Collision_Content =
@@ -163,47 +175,43 @@ public class SharedResources {
     public static final String CAR_ImageFile_RootPath = "/imgs/carsets/";
     public static final String CAR_ImageFileName_Prefix = "car_";
     public static final String CAR_ImageFileName_Extension = ".png";
+    public static final String CAR_Profile_RootPath = "/carprofiles/"; //The handling profiles of the cars (see CarProfile)
+    public static final String CAR_Profile_FileName_Prefix = "car_";
+    public static final String CAR_Profile_FileName_Extension = ".properties";
     public static final String CAR_Crashed_ImageFileNameWithPath = "/imgs/carsets/crash.png";
     public static final int CAR_Image_Size_X = 50;
     public static final int CAR_Image_Size_Y = CAR_Image_Size_X;
-    public static final String[] CAR_ImageFile_Angles = {"0", "22", "45", "67", "90", "112", "135", "157", "180", "202", "225", "247", "270", "292", "315", "337"}; //The car image filenames reflecting the angles
-    public static final int[]   CAR_Simulated_Angle_Values = {0,22,45,67,90,112,135,157,180,202,225,247,270,292,315,337}; //The game logic works with these angle values.
-    public static final CarBounds[] CAR_Simulated_Fine_Bounds =
-            {
-                    new CarBounds(11,1,38,1,11,48,38,48), //Angle: 0
-                    new CarBounds(22,0,42,8,30,46,8,39), //Angle: 22
-                    new CarBounds(32,1,46,13,19,47,1,32), //Angle: 45
-                    new CarBounds(40,8,49,26,11,44,0,21), //Angle: 67
-                    new CarBounds(1,12,48,12,48,37,1,37), //Angle: 90
-                    new CarBounds(11,6,48,23,41,43,0,27), //Angle: 112
-                    new CarBounds(20,1,47,30,35,47,2,16), //Angle: 135
-                    new CarBounds(19,1,48,31,36,47,2,16), //Angle: 157
-                    new CarBounds(11,1,38,1,11,48,38,48), //Angle: 180 (same as 0, this could be done more accurately in the future)
-                    new CarBounds(22,0,42,8,30,46,8,39), //Angle: 202 (same as 22, this could be done more accurately in the future)
-                    new CarBounds(32,1,46,13,19,47,1,32), //Angle: 225 (same as 45, this could be done more accurately in the future)
-                    new CarBounds(40,8,49,26,11,44,0,21), //Angle: 247 (same as 67, this could be done more accurately in the future)
-                    new CarBounds(1,12,48,12,48,37,1,37), //Angle: 270 (same as 90, this could be done more accurately in the future)
-                    new CarBounds(11,6,48,23,41,43,0,27), //Angle: 292 (same as 112, this could be done more accurately in the future)
-                    new CarBounds(20,1,47,30,35,47,2,16), //Angle: 315 (same as 135, this could be done more accurately in the future)
-                    new CarBounds(19,1,48,31,36,47,2,16), //Angle: 337 (same as 157, this could be done more accurately in the future)
-            }; /* This is used by the collision detection. Describes where are the non-transparent pixels within the car image.
-                  Described as the car made up of 4 lines per each angle (may or may not be an exact rotated rectangle)
+    public static final int CAR_Mask_Alpha_Threshold = 128; //A pixel of the car's image is part of the car's collision mask if its alpha value (0-255) is at least this
+    public static final String CAR_Source_ImageFile_Angle = "0"; //The image of the car facing North. The images of all the other angles are rotated from it when the car is loaded (see CarSprites)
+    public static final int CAR_Simulated_Angle_Count = 64; //The number of angles a car can face (64-256). Angle index i is i * 360 / count degrees clockwise from North. Must be a multiple of 4, so the cars can face exactly North, East, South and West.
+    public static final CarBounds CAR_Simulated_Fine_Bounds_North = new CarBounds(11,1,38,1,11,48,38,48); /* Describes where are the non-transparent pixels within the car image facing North.
+                  Described as the car made up of 4 lines (a rectangle). The bounds of the other angles are rotated from it.
+            */
+    public static final CarBounds[] CAR_Simulated_Fine_Bounds = CarBounds.CreateRotations(CAR_Simulated_Fine_Bounds_North, CAR_Simulated_Angle_Count, CAR_Image_Size_X, CAR_Image_Size_Y); /* This is used by the collision detection (one for each angle index).
+                  Used against the map edges and trees, and against other cars and grass only when the car's masks (CarMask) could not be built from its images.
             */
     /* INGAME: Game controlling settings */
-    public static final Integer[] GCS_ControlKeys_Player_1 =  { KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT}; //The order of keys are important! Always: UP, DOWN, LEFT, RIGHT
-    public static final Integer[] GCS_ControlKeys_Player_2 = {87, 83, 65, 68};  //87=W (UP), 83=S (DOWN), 65=A (LEFT), 68=D (RIGHT). The order of keys are important! Always: UP, DOWN, LEFT, RIGHT
-    public static final float GCS_Maximum_Car_Speed = 8;
-    public static final float GCS_Maximum_Car_Reverse_Speed = 4;
-    public static final float GCS_Maximum_Car_Grass_Speed = 3;
+    public static final int[] GCS_ControlKeys_Player_1 =  { KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT}; //The order of keys are important! Always: UP, DOWN, LEFT, RIGHT
+    public static final int[] GCS_ControlKeys_Player_2 = {87, 83, 65, 68};  //87=W (UP), 83=S (DOWN), 65=A (LEFT), 68=D (RIGHT). The order of keys are important! Always: UP, DOWN, LEFT, RIGHT
+    /* The driving physics are given in per second units, so the handling is the same at any tick rate (see TickPhysics).
+       The speeds are in pixels per second. The rates are exponential: the speed is multiplied by e^(rate * elapsed seconds). */
+    public static final float GCS_Maximum_Car_Speed_PerSecond = 200; //8 pixels per 40ms tick
+    public static final float GCS_Maximum_Car_Reverse_Speed_PerSecond = 100; //4 pixels per 40ms tick
+    public static final float GCS_Maximum_Car_Grass_Speed_PerSecond = 75; //3 pixels per 40ms tick
     public static final float GCS_Car_ColdStart_Acceleration_Percentage = 0.05f; //0.05f of max speed
      public static final float GCS_Car_RadicalAcceleration_SpeedLimit = 0.25f; //At 25% of max speed
-    public static final float GCS_Car_RadicalAcceleration_Ratio = 1.5f; // Multiply current speed with 1.5
+    public static final double GCS_Car_RadicalAcceleration_Rate_PerSecond = StrictMath.log(1.5) / 0.040; //Multiply current speed with 1.5 per 40ms
     public static final float GCS_Car_NormalAcceleration_SpeedLimit = 0.60f; //At 60% of max speed
-    public static final float GCS_Car_NormalAcceleration_Ratio = 1.2f; //Multiply current speed with 1.2
-    public static final float GCS_Car_HighSpeedAcceleration_Ratio = 1.1f; //Multiply current speed with 1.1
-    public static final float GCS_Car_NoAcceleration_Slowdown_Ratio = 0.9f; //Multiply current speed with 0.9
-    public static final float GCS_CarNoAcceleration_Stop_Threshold = 0.05f; //Stop the car reaching this threshold if no acceleration
+    public static final double GCS_Car_NormalAcceleration_Rate_PerSecond = StrictMath.log(1.2) / 0.040; //Multiply current speed with 1.2 per 40ms
+    public static final double GCS_Car_HighSpeedAcceleration_Rate_PerSecond = StrictMath.log(1.1) / 0.040; //Multiply current speed with 1.1 per 40ms
+    public static final double GCS_Car_NoAcceleration_Slowdown_Rate_PerSecond = StrictMath.log(0.9) / 0.040; //Multiply current speed with 0.9 per 40ms
+    public static final double GCS_Car_Profile_Factor_Period_Seconds = 0.040; //The accelerations of the car profiles are given as speed multipliers per this period (see CarProfile)
+    public static final float GCS_CarNoAcceleration_Stop_Threshold_PerSecond = 1.25f; //Stop the car reaching this threshold if no acceleration (0.05 pixels per 40ms tick)
+    public static final float GCS_Car_Turn_Rate_PerSecond = 180; //Degrees per second while a turn control is held (a new press turns one angle step at once)
     public static final int GCS_Car_Virtual_Speed_Max = 100; //The actual speed converted into a virtual scale (e.g. mph)
+    public static final boolean GCS_Deterministic_Physics_Default = false; //True to simulate with fixed-point integer arithmetic by default (bit-identical results on every machine)
+    /* INGAME: Collision detection */
+    public static final int CM_Grid_Cell_Size = 64; //The width and height of a cell of the spatial grid over the map objects, in pixels. About the size of a car.
     /* INGAME: Heads Up Display (HUD) */
     public static final int HUD_Panel_Width = 200;
     public static final int HUD_Panel_Height = 75;
@@ -227,7 +235,6 @@ public class SharedResources {
     public static final int HUD_OnScreenLocation_Y_Player_1 = 0;
     public static final int HUD_OnScreenLocation_X_Player_2 = 650;
     public static final int HUD_OnScreenLocation_Y_Player_2 = HUD_OnScreenLocation_X_Player_1;
-    public static final float HUD_StillCar_Speed_VirtualValue_Masking_Threshold = 0.6f;
     /*  Music and sound settings */
     public static final String SND_BackgroundMusic_FilenameWithPath = "/sounds/backgroundmusic.wav";
     public static final String SND_CarImpactSound_FilenameWithPath = "/sounds/carimpact.wav";
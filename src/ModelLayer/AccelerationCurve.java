@@ -0,0 +1,125 @@
+package ModelLayer;
+
+/**
+ * The acceleration of a car on one surface in one direction (e.g. forward on grass), compiled from its TickPhysics.
+ * The speed of an accelerating car is multiplied by the ratio of the speed band it is in (radical, normal or high speed),
+ * up to the speed limit of the surface and direction. A standing car gets the cold start speed.
+ * The band of a speed is looked up from a dense table indexed by the speed in 1/256 pixel steps, instead of comparing it
+ * to each band limit. An entry holds the band of the lowest speed of its step, and the few speeds of a step which are
+ * above a band limit are moved to the next band by one comparison, so the result is exactly the same as comparing the limits.
+ * The tables are only built up to the speed limit, as a car above its limit slows down instead.
+ * Works both with floating point speeds and with Q16 fixed-point speeds (see FixedPointMath).
+ */
+public class AccelerationCurve
+{
+    private static final int TABLE_STEP_BITS = 8; //The table has an entry for every 1/256 pixel per tick
+    private static final float TABLE_STEPS_PER_PIXEL = 1 << TABLE_STEP_BITS;
+    private static final int FIXED_TO_TABLE_SHIFT = FixedPointMath.FRACTION_BITS - TABLE_STEP_BITS; //Converts a Q16 speed to a table index
+
+    private final float _SpeedLimit; //The speed limit of the surface and direction in pixels per tick
+    private final float _ColdStartSpeed; //The speed of a car starting from standing (not over the speed limit)
+    private final float[] _BandEnds; //The lowest speed which is above each band (the last one is infinite)
+    private final float[] _Ratios; //The speed multiplier of each band
+    private final byte[] _Bands; //The band of the lowest speed of each 1/256 pixel step
+
+    private final int _FixedSpeedLimit; //The same values in Q16 fixed-point, for the deterministic physics mode
+    private final int _FixedColdStartSpeed;
+    private final int[] _FixedBandEnds;
+    private final int[] _FixedRatios;
+    private final byte[] _FixedBands;
+
+    /**
+     * Compiles the acceleration of a car for a speed limit.
+     * @param physics The driving physics of the car converted to one simulation tick.
+     * @param speedLimit The speed limit of the surface and direction in pixels per tick. Must be one of the speed limits of the physics.
+     * @param fixedSpeedLimit The same speed limit in Q16 fixed-point.
+     */
+    AccelerationCurve(TickPhysics physics, float speedLimit, int fixedSpeedLimit)
+    {
+        _SpeedLimit = speedLimit;
+        _ColdStartSpeed = Math.min(physics.ColdStartSpeed, speedLimit);
+        _BandEnds = new float[] {physics.RadicalAccelerationSpeedLimit, physics.NormalAccelerationSpeedLimit, Float.POSITIVE_INFINITY};
+        _Ratios = new float[] {physics.RadicalAccelerationRatio, physics.NormalAccelerationRatio, physics.HighSpeedAccelerationRatio};
+        _Bands = new byte[(int) (speedLimit * TABLE_STEPS_PER_PIXEL) + 1];
+        for (int i = 0; i < _Bands.length; i++)
+            _Bands[i] = FindBand(i / TABLE_STEPS_PER_PIXEL);
+
+        _FixedSpeedLimit = fixedSpeedLimit;
+        _FixedColdStartSpeed = Math.min(physics.FixedColdStartSpeed, fixedSpeedLimit);
+        _FixedBandEnds = new int[] {physics.FixedRadicalAccelerationSpeedLimit, physics.FixedNormalAccelerationSpeedLimit, Integer.MAX_VALUE};
+        _FixedRatios = new int[] {physics.FixedRadicalAccelerationRatio, physics.FixedNormalAccelerationRatio, physics.FixedHighSpeedAccelerationRatio};
+        _FixedBands = new byte[(fixedSpeedLimit >> FIXED_TO_TABLE_SHIFT) + 1];
+        for (int i = 0; i < _FixedBands.length; i++)
+            _FixedBands[i] = FindFixedBand(i << FIXED_TO_TABLE_SHIFT);
+    }
+
+    /**
+     * Returns the speed limit of the surface and direction.
+     * @return The speed limit in pixels per tick.
+     */
+    public float get_SpeedLimit()
+    {
+        return _SpeedLimit;
+    }
+
+    /**
+     * Returns the speed limit of the surface and direction in Q16 fixed-point.
+     * @return The speed limit in Q16.
+     */
+    public int get_FixedSpeedLimit()
+    {
+        return _FixedSpeedLimit;
+    }
+
+    /**
+     * Returns the speed of an accelerating car after one tick.
+     * @param speed The current speed in pixels per tick. Must be below the speed limit.
+     * @return The new speed, not higher than the speed limit.
+     */
+    public float NextSpeed(float speed)
+    {
+        if (speed == 0)
+            return _ColdStartSpeed;
+        int band = _Bands[(int) (speed * TABLE_STEPS_PER_PIXEL)];
+        if (speed >= _BandEnds[band])
+            band = FindBand(speed);
+        return Math.min(speed * _Ratios[band], _SpeedLimit);
+    }
+
+    /**
+     * Returns the speed of an accelerating car after one tick in the deterministic physics mode.
+     * @param speed The current speed in Q16. Must be below the speed limit.
+     * @return The new speed in Q16, not higher than the speed limit.
+     */
+    public int NextFixedSpeed(int speed)
+    {
+        if (speed == 0)
+            return _FixedColdStartSpeed;
+        int band = _FixedBands[speed >> FIXED_TO_TABLE_SHIFT];
+        if (speed >= _FixedBandEnds[band])
+            band = FindFixedBand(speed);
+        return Math.min(FixedPointMath.Multiply(speed, _FixedRatios[band]), _FixedSpeedLimit);
+    }
+
+    /**
+     * Finds the band of a speed by comparing it to the band limits.
+     */
+    private byte FindBand(float speed)
+    {
+        byte band = 0;
+        while (speed >= _BandEnds[band])
+            band++;
+        return band;
+    }
+
+    /**
+     * Finds the band of a Q16 speed by comparing it to the band limits.
+     */
+    private byte FindFixedBand(int speed)
+    {
+        byte band = 0;
+        while (speed >= _FixedBandEnds[band])
+            band++;
+        return band;
+    }
+}
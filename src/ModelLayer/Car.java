@@ -1,43 +1,72 @@
 package ModelLayer;
 
-import ControlLayer.CurrentGameSession;
+import ControlLayer.GameSession;
 import ControlLayer.SharedResources;
+import ModelLayer.CollisionManagement.CarMask;
+import ModelLayer.CollisionManagement.CollisionManager;
+import ModelLayer.CollisionManagement.CollisionResult;
+import ModelLayer.CollisionManagement.SweepResult;
 import ModelLayer.Enumerations.GameMode;
 import ModelLayer.FileLoaders.ImageFileLoader;
-import ViewLayer.Screens.InGameScr.CarInGameDisplayLabel;
 
 import java.awt.*;
-import java.util.HashSet;
 
 /**
- * Manages a car's movement and calculates coordinates. Works together with the CarInGameDisplayLabel.
+ * Manages a car's movement and calculates coordinates. Owns the car's position and angle.
  * Does not deal with the visual/on-screen representation of the car, which is the CarInGameDisplayLabel's job.
+ * Only the geometry classes of AWT are used (which are safe to use in headless mode), so a car can be simulated without Swing.
  * The car's movement features: <br>
  * - Variable acceleration speeds, based on the current speed and direction (reverse or forward) <br>
  * - Variable speed limits, based on surface (road vs grass) and direction (reverse of forward) <br>
  * - Real speed (pixel/frame rate) to Virtual speed (0-100 mph scale) conversion. <br>
  * - Handling collisions (using the CollisionManager class)<br>
+ * The speed is stored in pixels per tick. The physics constants are converted to the tick length of the match by TickPhysics,
+ * so the handling is the same at any tick rate.
+ * If the game session asks for deterministic physics, the speed is calculated with
+ * fixed-point integer arithmetic (see FixedPointMath) instead of floats, so the results are bit-identical on every machine.
+ * The position is kept with sub-pixel precision (Q16) in both modes, and moved along the precomputed direction vector of the car's angle,
+ * so low speeds and diagonal movements are exact, and no trigonometry is needed in a tick.
  */
 public class Car
 {
+    /**
+     * The game session (match) the car takes part in. Used to reach the CollisionManager and the GameEngine of the match.
+     */
+    private final GameSession _Session;
+
     /**
      * The ratio to be used when converting actual speed (pixel/coordinate change) to virtual speed (0-100mph).
      */
-    private final float _VirtualSpeedRatio;
+    private float _VirtualSpeedRatio;
+
+    /**
+     * The driving physics constants converted to the tick length of the match. Taken from the game session when the game starts.
+     */
+    private TickPhysics _Physics;
 
     /**
      * The current speed represented as the number of pixel moves on screen between two frame changes.
-     * Example: 'speed = 3' means that the car needs to be moved 3 pixels
-     * horizontally or vertically from its current position if the car is rotated with 0, 90, 180, 270 angles.
-     * (if the car has a different angle, then trigonometric calculation applied to get the exact number)
+     * Example: 'speed = 3' means that the car needs to be moved 3 pixels along its direction
+     * (see FixedPointMath.DirectionX and DirectionY for the direction vectors of the angles).
      */
     private float _Speed;
 
     /**
-     * The current rotation of the car, where 0 means facing North.
-     * The angle always matches one of the elements in the SharedResources.CAR_Simulated_Angle_Values array.
+     * The current speed in Q16 fixed-point (see FixedPointMath). Used instead of _Speed in deterministic physics mode.
+     */
+    private int _FixedSpeed;
+
+    /**
+     * True if the car is simulated with fixed-point integer arithmetic (deterministic physics mode).
+     * Taken from the game session when the game starts.
+     */
+    private boolean _FixedPointMode;
+
+    /**
+     * The current rotation of the car as an angle index (see SharedResources.CAR_Simulated_Angle_Count),
+     * where the angle 0 means facing North.
      */
-    private float _CurrentAngle;
+    private int _AngleIndex;
 
     /**
      * True if the car is in reverse mode. False if it is in forward or standing mode.
@@ -60,25 +89,80 @@ public class Car
     private boolean _LastMoveHitOtherCar;
 
     /**
-     * The currently displayed car image based on its current angle.
-     * This is an index number for the SharedResources.CAR_ImageFile_Angles array.
+     * The index number of the selected car (car design). This is used as a folder name for the car's images.
      */
     private int _CarImageFileIndex;
 
     /**
-     * The view layer object of the car representation. This JLabel displays the car's image.
+     * The top left coordinate of the car's image on the map, rounded to whole pixels from the sub-pixel position.
+     * The car owns its position, so the simulation can run independently from the Swing components.
      */
-    private CarInGameDisplayLabel _CarDisplay;
+    private final Point _Location = new Point(0, 0);
 
     /**
-     * A lists of currently pressed control keys. If a key is released, then it gets removed from the list.
-     * This can contain 0-4 values in total.
+     * The X coordinate of the top left corner of the car's image in Q16 (see FixedPointMath).
+     * Keeps the fraction of the movements, so the car moves at the right speed even if it moves less than a pixel in a tick.
      */
-    private HashSet<Integer> _CurrentlyPressedKeys;
+    private int _SubPixelX;
 
+    /**
+     * The Y coordinate of the top left corner of the car's image in Q16 (see FixedPointMath).
+     */
+    private int _SubPixelY;
+
+    /**
+     * Reused for the proposed new location of the car in each tick, so moving the car does not allocate objects.
+     */
+    private final Point _ProposedLocation = new Point(0, 0);
+
+    /**
+     * Reused for the bounds of the car passed to the CollisionManager, so the collision checks do not allocate objects.
+     * The CollisionManager does not keep a reference to it.
+     */
+    private final Rectangle _ProposedBounds = new Rectangle(0, 0, SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y);
+
+    /**
+     * The collision masks of the car (one for each angle), built from the car's images (or from the car's polygons if the images could not be read).
+     */
+    private CarMask[] _Masks;
 
     /**
-     * Manages a car's movement and calculates coordinates. Works together with the CarInGameDisplayLabel.
+     * Reused for the result of sweeping the car along its displacement.
+     */
+    private final SweepResult _Sweep = new SweepResult();
+
+    /**
+     * Reused for the result of checking the car on a proposed position.
+     */
+    private final CollisionResult _Collision = new CollisionResult();
+
+    /**
+     * The controls currently held down on the keyboard, as an input word (see CarInput).
+     * Written by the key events on the EDT (under the simulation lock).
+     */
+    private int _KeyboardInput;
+
+    /**
+     * The controls pressed on the keyboard since the input was last captured, as an input word (see CarInput).
+     * Keeps a key pressed and released between two ticks, so a short tap is not lost.
+     */
+    private int _KeyboardTaps;
+
+    /**
+     * The input word of the previous tick (see CarInput). Used to find the newly pressed controls.
+     */
+    private int _PreviousInput;
+
+    /**
+     * The progress of the current turn towards the next angle step in Q16 (see FixedPointMath).
+     * A held turn control adds the turn rate of the car (TickPhysics.FixedTurnSteps) in each tick, and the car turns one angle step for each whole step.
+     * Also used in the floating point physics mode, so the angle of the car does not depend on rounding.
+     */
+    private int _TurnProgress;
+
+
+    /**
+     * Manages a car's movement and calculates coordinates. Owns the car's position and angle.
      * Does not deal with the visual/on-screen representation of the car, which is the CarInGameDisplayLabel's job.
      * The car's movement features: <br>
      * - Variable acceleration speeds, based on the current speed and direction (reverse or forward) <br>
@@ -86,256 +170,393 @@ public class Car
      * - Real speed (pixel/frame rate) to Virtual speed (0-100 mph scale) conversion. <br>
      * - Handling collisions (using the CollisionManager class)<br>
      *
-     * @param _CarImageFileIndex The starting angle of the car. This is an index number for the SharedResources.CAR_Simulated_Angle_Values array.
+     * @param _CarImageFileIndex The index number of the selected car (car design). Starts from 0.
+     * @param _Session The game session (match) the car takes part in.
      */
-    public Car(int _CarImageFileIndex)
+    public Car(int _CarImageFileIndex, GameSession _Session)
     {
         this._CarImageFileIndex = _CarImageFileIndex;
-        _VirtualSpeedRatio = SharedResources.GCS_Car_Virtual_Speed_Max / SharedResources.GCS_Maximum_Car_Speed;
-    }
-
-    /**
-     * Sets the angle of the car.
-     * @param _CurrentAngle The new angle. Must match with an element of the SharedResources.CAR_Simulated_Angle_Values array.
-     */
-    public void set_CurrentAngle(float _CurrentAngle)
-    {
-        this._CurrentAngle = _CurrentAngle;
+        this._Session = _Session;
     }
 
     /**
-     * Sets the currently used car image file.
-     * @param _CarImageFileIndex This is an index number of the SharedResources.CAR_Simulated_Angle_Values array.
+     * Sets the selected car (car design).
+     * @param _CarImageFileIndex The index number of the selected car. Starts from 0.
      */
     public void set_CarImageFileIndex(int _CarImageFileIndex) {
         this._CarImageFileIndex = _CarImageFileIndex;
     }
 
     /**
-     * Retrieves the in-game images of a car for all the angles.
-     * @return Returns an array of images, where each image is the same car but with a rotated angle.
+     * Returns the selected car (car design). Used by the view layer to load the car's images.
+     * @return The index number of the selected car. Starts from 0.
      */
-    public Image[] LoadCarImages()
-    {
-        return ImageFileLoader.LoadCarImages(_CarImageFileIndex);
+    public int get_CarImageFileIndex() {
+        return _CarImageFileIndex;
     }
 
     /**
-     * Handles when a controlling key pressed during the game.
+     * Handles when a controlling key pressed during the game. The key is applied when the input is captured for the next tick.
      * @param keyCode The keycode of the pressed key.
      */
-    public void HandlePressedKey(int keyCode) {
-        //If accelerate (up) button pressed then register it with the pressed keys
-        if(keyCode == SharedResources.GCS_ControlKeys_Player_1[0] || keyCode == SharedResources.GCS_ControlKeys_Player_2[0] ) {
-            _CurrentlyPressedKeys.add(keyCode); //No duplicates, as this is a hash set
-            return;
-        }
-        //If break (backward) button pressed then register it with the pressed keys
-        if(keyCode == SharedResources.GCS_ControlKeys_Player_1[1] || keyCode == SharedResources.GCS_ControlKeys_Player_2[1] ) {
-            _CurrentlyPressedKeys.add(keyCode); //No duplicates, as this is a hash set
-            return;
-        }
-        //If turning left button pressed call the appropriate handling method
-        if(keyCode == SharedResources.GCS_ControlKeys_Player_1[2] || keyCode == SharedResources.GCS_ControlKeys_Player_2[2] ) {
-            HandleTurnButton(keyCode, true);
-            return;
-        }
-        //If turning right button pressed call the appropriate handling method
-        if(keyCode == SharedResources.GCS_ControlKeys_Player_1[3] || keyCode == SharedResources.GCS_ControlKeys_Player_2[3] ) {
-            HandleTurnButton(keyCode,false);
-        }
+    public void HandlePressedKey(int keyCode)
+    {
+        int control = CarInput.FromKeyCode(keyCode);
+        _KeyboardInput |= control;
+        _KeyboardTaps |= control;
     }
 
 
     /**
-     * Handles the Key release event by removing the key from the list of currently pressed keys.
+     * Handles the Key release event by removing the key from the currently pressed controls.
      * @param keyCode The keycode of the released key.
      */
     public void HandleReleasedKey(int keyCode)
     {
-        _CurrentlyPressedKeys.remove(keyCode);
+        _KeyboardInput &= ~CarInput.FromKeyCode(keyCode);
     }
 
     /**
-     * Turns the car if turning won't cause collision with other object or car.
-     *
-     * @param key    The pressed turning control key's keycode.
-     * @param isLeft True if the car needs to turn left (counter clockwise). False to turn right (clockwise).
+     * Captures the state of the keyboard as the input word of a tick. Called by the GameEngine once per tick, before the car is simulated.
+     * The controls pressed since the last capture are included even if they have been released already.
+     * @return The input word (see CarInput).
      */
-    private void HandleTurnButton(int key, Boolean isLeft)
+    public int CaptureKeyboardInput()
     {
-        if (!_CurrentlyPressedKeys.contains(key)) {
-            if (!WouldTurnCauseCollision(_CarDisplay.GetNewCarImageIndexIfTurned(isLeft)))
+        int input = _KeyboardInput | _KeyboardTaps;
+        _KeyboardTaps = CarInput.NONE;
+        return input;
+    }
+
+    /**
+     * Turns the car for the pressed turn control. A new press turns the car one angle step at once,
+     * and a held control keeps turning it at the turn rate of the car. Pressing both turn controls does not turn the car.
+     * If a turn step would cause collision, the car is not turned, and the turn is tried again in the next ticks while the control is held.
+     * @param input The input word of the tick (see CarInput).
+     */
+    private void HandleTurnControls(int input)
+    {
+        int steering = input & (CarInput.TURN_LEFT | CarInput.TURN_RIGHT);
+        if (steering != CarInput.TURN_LEFT && steering != CarInput.TURN_RIGHT)
+        {
+            _TurnProgress = 0;
+            return;
+        }
+
+        boolean isNewPress = (_PreviousInput & steering) == 0;
+        if (isNewPress)
+            _TurnProgress = FixedPointMath.ONE;
+        else
+            _TurnProgress += _Physics.FixedTurnSteps;
+
+        //Turns one angle step at a time, so each step is checked for collision
+        while (_TurnProgress >= FixedPointMath.ONE)
+        {
+            int newAngleIndex = GetNewAngleIndexIfTurned(steering == CarInput.TURN_LEFT);
+            if (WouldTurnCauseCollision(newAngleIndex))
+            {
+                //Notify the GameEngine controller about the collision (only when the control has just been pressed), so it can play sound if needed.
+                if (isNewPress)
+                    _Session.get_GameEngine().CarImpactOccurred(this);
+                _TurnProgress &= FixedPointMath.ONE - 1; //The blocked steps are dropped
+                return;
+            }
+            _AngleIndex = newAngleIndex;
+            _TurnProgress -= FixedPointMath.ONE;
+        }
+    }
+
+    /**
+     * Calculates the angle of the car after a turn. Does not turn the car.
+     * @param isLeftDirection True to turn the car counter-clockwise. False to turn it clockwise.
+     * @return Returns the angle of the turned car as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     */
+    private int GetNewAngleIndexIfTurned(boolean isLeftDirection)
+    {
+        int nAngleIndex;
+        if(isLeftDirection)
+        {
+            nAngleIndex = GetCurrentAngleIndex() - 1;
+            if(nAngleIndex < 0)
             {
-                _CurrentlyPressedKeys.add(key);
-                int newAngleIndex = _CarDisplay.Turn(isLeft); //Asks the JLabel to change to a new image.
-                _CurrentAngle = SharedResources.CAR_Simulated_Angle_Values[newAngleIndex];
+                nAngleIndex += SharedResources.CAR_Simulated_Angle_Count;
             }
-            else {
-                //Notify the GameEngine controller about the collision, so it can play sound if needed.
-                SharedResources.MainController.get_GameEngine().CarImpactOccurred();
+        }
+        else
+        {
+            nAngleIndex = GetCurrentAngleIndex() + 1;
+            if(nAngleIndex >= SharedResources.CAR_Simulated_Angle_Count)
+            {
+                nAngleIndex -= SharedResources.CAR_Simulated_Angle_Count;
             }
         }
+        return nAngleIndex;
     }
 
     /**
      * Check if the turning of the car would cause collision with other objects or car.
      * This does not turn the car, only checks.
-     * @param supposedNewAngleIndex This is an index number of the SharedResources.CAR_Simulated_Angle_Values array.
+     * @param supposedNewAngleIndex This is an angle index (see SharedResources.CAR_Simulated_Angle_Count).
      * @return Returns true if the car would collide using the new angle.
      */
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     private boolean WouldTurnCauseCollision(int supposedNewAngleIndex)
     {
         boolean result;
-        Rectangle currentLoc = _CarDisplay.getBounds();
+        Rectangle currentLoc = GetBoundsAsRectangle(_Location, _ProposedBounds);
 
         //Check for crashing into other cars with the supposed turn. This is not relevant in Single player mode.
-        if(CurrentGameSession.get_GameMode() != GameMode.SINGLEPLAYER)
+        if(_Session.get_GameMode() != GameMode.SINGLEPLAYER)
         {
-            result = CurrentGameSession.get_CollisionManager().isCollidingWithOtherCars(this, currentLoc, supposedNewAngleIndex);
+            result = _Session.get_CollisionManager().isCollidingWithOtherCars(this, currentLoc, supposedNewAngleIndex);
             if (result)
                 return true;
         }
 
         //Check for hitting edges/trees with a supposed turn
-        result = CurrentGameSession.get_CollisionManager().IsCollidingWithImpassable(currentLoc, supposedNewAngleIndex);
+        result = _Session.get_CollisionManager().IsCollidingWithImpassable(currentLoc, GetMask(supposedNewAngleIndex));
         return result;
     }
 
     /**
      * Called with every new frame.
-     * Updates the speed based on the current speed, pressed buttons, collisions, terrain.
-     * Based on the updated speed calculates the new location and sends it back to the JLabel for refreshing.
+     * Turns the car, and updates the speed based on the current speed, pressed controls, collisions, terrain.
+     * Based on the updated speed calculates the new location and moves the car there if no collision occurs.
+     * Runs on the simulation thread of the GameEngine.
+     * @param input The controls pressed in this tick, as an input word (see CarInput). Captured from the keyboard, or taken from a replay or the network.
      */
-    public void CalculateNextFrame()
+    public void CalculateNextFrame(int input)
     {
-        UpdateSpeed();
+        HandleTurnControls(input);
+        UpdateSpeed(input);
         CalculateNewLocation();
+        _PreviousInput = input;
     }
 
     /**
      * Calculates the new location for the car based on
-     * its current position, current speed and direction (angle)
+     * its current position, current speed and direction (angle).
+     * The displacement is the speed multiplied by the direction vector of the angle, added to the sub-pixel position.
      */
     private void CalculateNewLocation()
     {
-        Point loc = _CarDisplay.getLocation();
-
-        //Check if there is no diagonal movement required, to simplify calculation
-        switch (Math.round(_CurrentAngle)) {
-            //Car facing upwards. Moving up on Y axis. (opposite if reversed)
-            case 0:
-                loc.translate(0,ReverseModeCheck(0 - Math.round(_Speed) ));
-                break;
-
-            //Car facing downwards. Moving down on Y axis. (opposite if reversed)
-            case 180:
-                loc.translate(0, ReverseModeCheck(Math.round(_Speed)));
-                break;
-
-            //Car facing towards west. Moving up on X axis. (opposite if reversed)
-            case 90:
-                loc.translate(ReverseModeCheck(Math.round(_Speed)),0);
-                break;
-
-            //Car facing towards east. Moving down on Y axis. (opposite if reversed)
-            case 270:
-                loc.translate(ReverseModeCheck(0 - Math.round(_Speed)), 0);
-                break;
-            default:
-                //Use trigonometric functions to calculate the new location
-                loc = NewLocationByTrigonometric(loc);
-                break;
-        }
+        int speed = _FixedPointMode ? _FixedSpeed : FixedPointMath.ToFixed(_Speed);
+        int newSubPixelX = _SubPixelX + ReverseModeCheck(FixedPointMath.Multiply(speed, FixedPointMath.DirectionX(_AngleIndex)));
+        int newSubPixelY = _SubPixelY + ReverseModeCheck(FixedPointMath.Multiply(speed, FixedPointMath.DirectionY(_AngleIndex)));
 
-        CheckForCollisionAndMove(loc); //Send the new proposed location for collision checking.
+        CheckForCollisionAndMove(newSubPixelX, newSubPixelY); //Send the new proposed location for collision checking.
     }
 
     /**
      * Checks for collisions based on the provided new location as a parameter.
-     * If no collision would occur on the new location, then moves the car to the location (by asking the JLabel).
+     * If the new location is free, the car is swept along its way to it, so it cannot tunnel through thin walls or other cars (even if it is fast).
+     * If the new location is blocked, or the sweep finds an impact on the way, the car is moved up to the contact point.
+     * If no collision would occur on the way, then moves the car to the location.
      * If collision would occur, then handles the situation based on the type of the collision: <br>
      * - If the car collides with grass, then this will be noted and speed changes might occur with the next frame. <br>
      * - If the car collides with other car, the GameEngine will be notified
-     * - If the car hits the edge of the map/tree, then zeroes down the speed and will not move the car.
+     * - If the car hits the edge of the map/tree, then moves the car up to the contact point and zeroes down the speed.
      *
-     * @param nLocation The new location where the car needs to be moved and collision needs to be checked.
+     * @param newSubPixelX The X coordinate of the new location in Q16, where the car needs to be moved and collision needs to be checked.
+     * @param newSubPixelY The Y coordinate of the new location in Q16.
      */
-    private void CheckForCollisionAndMove(Point nLocation)
+    private void CheckForCollisionAndMove(int newSubPixelX, int newSubPixelY)
     {
-        Rectangle r = GetBoundsAsRectangle(nLocation);
-
-        //Checking for collision with other car. This is only relevant for non single player games.
-        if(CurrentGameSession.get_GameMode() != GameMode.SINGLEPLAYER)
+        Point nLocation = _ProposedLocation;
+        nLocation.setLocation(FixedPointMath.RoundToInt(newSubPixelX), FixedPointMath.RoundToInt(newSubPixelY));
+        CollisionManager cm = _Session.get_CollisionManager();
+        boolean checkCars = _Session.get_GameMode() != GameMode.SINGLEPLAYER;
+        int dx = nLocation.x - _Location.x;
+        int dy = nLocation.y - _Location.y;
+
+        //Checking all kinds of collisions on the new location at once (other cars only in non single player games)
+        Rectangle r = GetBoundsAsRectangle(nLocation, _ProposedBounds);
+        cm.CheckPosition(this, r, GetCurrentAngleIndex(), checkCars, _Collision);
+        boolean blocked = _Collision.HitCar || _Collision.HitWall;
+
+        //The sweep works on the car polygon, which does not always contain the whole mask, so it can miss a contact of the mask.
+        //A blocked new location is therefore always approached position by position, without relying on the sweep.
+        if ((dx != 0 || dy != 0) && (blocked || cm.SweepCar(this, _Location.x, _Location.y, GetCurrentAngleIndex(), dx, dy, checkCars, _Sweep)))
         {
-            _LastMoveHitOtherCar = CurrentGameSession.get_CollisionManager().isCollidingWithOtherCars(this, r, GetAngleIndexFromAngle(_CurrentAngle));
-            if (_LastMoveHitOtherCar)
+            if (MoveUntilImpact(dx, dy, checkCars))
             {
-                _Speed = 0;
-                SharedResources.MainController.get_GameEngine().CarCrashOccurred(); //Notify game engine.
+                ZeroSpeed();
+                if (_LastMoveHitOtherCar)
+                    _Session.get_GameEngine().CarCrashOccurred(this); //Notify game engine.
+                else
+                    _Session.get_GameEngine().CarImpactOccurred(this); //Notify game engine.
                 return;
             }
+            //Nothing on the way. The last position checked was the new location, so _Collision still holds its result.
+        }
+
+        _LastMoveHitOtherCar = _Collision.HitCar;
+        if (_LastMoveHitOtherCar)
+        {
+            ZeroSpeed();
+            _Session.get_GameEngine().CarCrashOccurred(this); //Notify game engine.
+            return;
         }
 
         //Check if the car would hit a wall/rock and the speed needed to be zeroed
-        _LastMoveHitTheWall = CurrentGameSession.get_CollisionManager().IsCollidingWithImpassable(r, GetAngleIndexFromAngle(_CurrentAngle));
+        _LastMoveHitTheWall = _Collision.HitWall;
         if (!_LastMoveHitTheWall) {
-            _CarDisplay.setLocation(nLocation); //No collision. Set the JLabel about the new location.
+            int oldX = _Location.x;
+            _Location.setLocation(nLocation); //No collision. Move the car to the new location.
+            _SubPixelX = newSubPixelX;
+            _SubPixelY = newSubPixelY;
+            cm.CarMoved(this, oldX); //Keep the car-vs-car broadphase in order
         } else {
             //Hitting the edge of the racing track or a tree.
-            _Speed = 0;
-            SharedResources.MainController.get_GameEngine().CarImpactOccurred(); //Notify game engine.
+            ZeroSpeed();
+            _Session.get_GameEngine().CarImpactOccurred(this); //Notify game engine.
             return;
         }
 
         //Check if the car hits a grass area and slowing down would be needed from the next frame
-        _OnGrass = CurrentGameSession.get_CollisionManager().IsCollidingWithGrass(r,GetAngleIndexFromAngle(_CurrentAngle));
+        _OnGrass = _Collision.OnGrass;
     }
 
     /**
-     * Returns the current angle represented as an index of the SharedResources.CAR_Simulated_Angle_Values array.
-     * @return The current angle represented as an index of the SharedResources.CAR_Simulated_Angle_Values array.
+     * Moves the car along its displacement up to the last whole pixel position before the impact.
+     * The swept test (CollisionManager.SweepCar) works on the car polygons, and the new location is tested alone, so the exact
+     * position and the kind of the impact is found here by checking the positions on the way one by one with the exact (pixel) tests.
+     * The last position checked is the end of the displacement.
+     * Sets the _LastMoveHitOtherCar and _LastMoveHitTheWall flags. If the first position is blocked, the car stays where it is.
+     * The sub-pixel position is snapped to the pixel the car stopped at.
+     *
+     * @param dx The X component of the displacement.
+     * @param dy The Y component of the displacement.
+     * @param checkCars True to check the other cars as well.
+     * @return True if the car hit something on the way. False if all the positions are free (the car is not moved then).
+     */
+    private boolean MoveUntilImpact(int dx, int dy, boolean checkCars)
+    {
+        CollisionManager cm = _Session.get_CollisionManager();
+        int angleIndex = GetCurrentAngleIndex();
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+        int startX = _Location.x;
+        int startY = _Location.y;
+
+        for (int i = 1; i <= steps; i++)
+        {
+            _ProposedLocation.setLocation(startX + Math.floorDiv(2 * dx * i + steps, 2 * steps), startY + Math.floorDiv(2 * dy * i + steps, 2 * steps));
+            Rectangle r = GetBoundsAsRectangle(_ProposedLocation, _ProposedBounds);
+            cm.CheckPosition(this, r, angleIndex, checkCars, _Collision);
+            _LastMoveHitOtherCar = _Collision.HitCar;
+            _LastMoveHitTheWall = !_Collision.HitCar && _Collision.HitWall;
+            if (_LastMoveHitOtherCar || _LastMoveHitTheWall)
+            {
+                if (i > 1)
+                {
+                    //Moving to the previous (free) position
+                    _Location.setLocation(startX + Math.floorDiv(2 * dx * (i - 1) + steps, 2 * steps), startY + Math.floorDiv(2 * dy * (i - 1) + steps, 2 * steps));
+                    SnapSubPixelToLocation();
+                    cm.CarMoved(this, startX);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the sub-pixel position to the whole pixel position of the car (e.g. when the car has been moved to a contact point).
+     */
+    private void SnapSubPixelToLocation()
+    {
+        _SubPixelX = _Location.x << FixedPointMath.FRACTION_BITS;
+        _SubPixelY = _Location.y << FixedPointMath.FRACTION_BITS;
+    }
+
+    /**
+     * Returns the collision mask of the car for a given angle.
+     * @param angleIndex The angle as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The mask built from the car's image for the angle (or from the car's polygon if the images could not be read).
+     */
+    public CarMask GetMask(int angleIndex)
+    {
+        return _Masks[angleIndex];
+    }
+
+    /**
+     * Returns the current angle represented as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The current angle represented as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
      */
     public int GetCurrentAngleIndex()
     {
-        return GetAngleIndexFromAngle(_CurrentAngle);
+        return _AngleIndex;
     }
 
     /**
-     * Searches within the SharedResources.CAR_Simulated_Angle_Values.length array to find the angle in the parameter.
-     * @param angle The angle to be found in the array.
-     * @return The index number where the angle can be found in the array.
+     * Converts an angle to the closest angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * Only used when the car is placed on the map, the car keeps its angle as an index afterwards.
+     * @param angle The angle in degrees, clockwise from North.
+     * @return The angle index.
      */
-    private int GetAngleIndexFromAngle(float angle)
+    private static int GetAngleIndexFromAngle(int angle)
     {
-        //This expects the value to be found 100% of the times.
-        int i;
-        for(i = 0; i < SharedResources.CAR_Simulated_Angle_Values.length; i++)
-        {
-            if (SharedResources.CAR_Simulated_Angle_Values[i] == angle)
-                return i;
-        }
-        return i;
+        int count = SharedResources.CAR_Simulated_Angle_Count;
+        return Math.floorMod(Math.round(angle * count / 360f), count);
     }
 
     /**
      * Retrieves the car's current location as a rectangle. This is based on the image file.
      * @return Rectangle representing car's on-screen location. The size of the rectangle matches the image's size.
      */
-    public Rectangle GetBoundsAsRectangle() { return _CarDisplay.getBounds();
+    public Rectangle GetBoundsAsRectangle()
+    {
+        return GetBoundsAsRectangle(_Location, new Rectangle());
+    }
+
+    /**
+     * Returns the X coordinate of the car's current location.
+     * @return The X coordinate of the top left corner of the car's image.
+     */
+    public int GetLocationX()
+    {
+        return _Location.x;
+    }
+
+    /**
+     * Returns the Y coordinate of the car's current location.
+     * @return The Y coordinate of the top left corner of the car's image.
+     */
+    public int GetLocationY()
+    {
+        return _Location.y;
+    }
+
+    /**
+     * Captures the current state of the car, so it can be drawn on screen after the simulation tick finished.
+     * @return A new snapshot of the car's location, angle and virtual speed.
+     */
+    public CarState CaptureState()
+    {
+        return new CarState(_Location.x, _Location.y, GetCurrentAngleIndex(), GetVirtualSpeed());
+    }
+
+    /**
+     * Captures the current state of the car into an existing snapshot (reused by the GameEngine, so no object is allocated).
+     * @param result The snapshot to overwrite with the car's location, angle and virtual speed.
+     */
+    public void CaptureState(CarState result)
+    {
+        result.Set(_Location.x, _Location.y, GetCurrentAngleIndex(), GetVirtualSpeed());
     }
 
     /**
      * Retrieves a car's hypothetical location as a rectangle.
-     * This is done by creating a rectangle with the same size as the car's image and
+     * This is done by setting a rectangle to the same size as the car's image and
      * placing it into the location specified in the parameter.
      * @param startLocation The top left coordinate for the rectangle.
-     * @return Returns a rectangle car sized rectangle at the startLocation point.
+     * @param result The rectangle to set (reused, so no object is allocated).
+     * @return Returns the result rectangle, which is car sized and placed at the startLocation point.
      */
-    private Rectangle GetBoundsAsRectangle(Point startLocation)
+    private Rectangle GetBoundsAsRectangle(Point startLocation, Rectangle result)
     {
-        return new Rectangle(startLocation.x, startLocation.y, SharedResources.CAR_Image_Size_X ,SharedResources.CAR_Image_Size_Y);
+        result.setBounds(startLocation.x, startLocation.y, SharedResources.CAR_Image_Size_X ,SharedResources.CAR_Image_Size_Y);
+        return result;
     }
 
 
@@ -357,39 +578,16 @@ public class Car
     }
 
     /**
-     * The Hypotenuse of the triangle (the speed) and the angle are known.
-     * Calculating the Opposite side of the triangle (X axis) by using Sine.
-     * Calculating the Adjacent side of the triangle (Y axis) by using Cosine
-     * @param currentLoc The location where the car would move from.
-     * @return Returns the new location based on the current speed and angle.
-     */
-    private Point NewLocationByTrigonometric(Point currentLoc)
-    {
-        //The angle in radians
-        double angleRad = Math.toRadians(_CurrentAngle);
-
-        //sin * speed = X axis
-        double sin = Math.sin(angleRad);
-        double dx = _Speed * sin;
-
-        //cos * speed = Y axis
-        double cos = Math.cos(angleRad);
-        double dy = 0- (_Speed * cos);
-
-        currentLoc.translate(ReverseModeCheck((int) Math.round(dx)), ReverseModeCheck((int) Math.round(dy)));
-        return currentLoc;
-    }
-
-    /**
-     * Changes the current speed based on the currently pressed buttons.
+     * Changes the current speed based on the currently pressed controls.
+     * @param input The input word of the tick (see CarInput).
      */
-    private void UpdateSpeed()
+    private void UpdateSpeed(int input)
     {
-        boolean isForwardPressed = _CurrentlyPressedKeys.contains(SharedResources.GCS_ControlKeys_Player_1[0]) || _CurrentlyPressedKeys.contains(SharedResources.GCS_ControlKeys_Player_2[0]);
-        boolean isBackwardPressed = _CurrentlyPressedKeys.contains(SharedResources.GCS_ControlKeys_Player_1[1]) || _CurrentlyPressedKeys.contains(SharedResources.GCS_ControlKeys_Player_2[1]);
+        boolean isForwardPressed = (input & CarInput.ACCELERATE) != 0;
+        boolean isBackwardPressed = (input & CarInput.BRAKE) != 0;
         boolean isBackAndForwardPressed = isForwardPressed && isBackwardPressed;
         boolean isNonOfBackOrForwardPressed = !(isForwardPressed || isBackwardPressed);
-        boolean isCarStopped = (_Speed == 0);
+        boolean isCarStopped = _FixedPointMode ? (_FixedSpeed == 0) : (_Speed == 0);
 
         if(isBackAndForwardPressed || isNonOfBackOrForwardPressed)
         {
@@ -440,72 +638,52 @@ public class Car
 
     /**
      * Accelerate the car (changes speed) using variable rate acceleration.
+     * The next speed is looked up from the acceleration curve of the car's handling profile for the surface and direction.
      * Checks for speed limit and slows down if overreached.
-     * Picks the slowest/lowest speed limit based the input parameters.
-     * @param useReverseSpeedLimit True to use a reverse (slower) speed limit. False to use standard speed limit.
-     * @param useGrassSpeedLimit True to use a off-road (slower) speed limit. False to use standard speed limit.
+     * @param useReverseSpeedLimit True to use the acceleration curve (and speed limit) of reversing. False to use the one of forwarding.
+     * @param useGrassSpeedLimit True to use the acceleration curve (and speed limit) of off-road. False to use the one of the road.
      */
     private void Accelerate(boolean useReverseSpeedLimit, boolean useGrassSpeedLimit)
     {
-        //Select different limit for reversing and forwarding
-        float speedLimit;
-        if (!useReverseSpeedLimit)
-            speedLimit = SharedResources.GCS_Maximum_Car_Speed;
+        AccelerationCurve curve = _Physics.GetAccelerationCurve(useGrassSpeedLimit, useReverseSpeedLimit);
+        int comparedToLimit;
+        if (_FixedPointMode)
+            comparedToLimit = Integer.compare(_FixedSpeed, curve.get_FixedSpeedLimit());
         else
-            speedLimit = SharedResources.GCS_Maximum_Car_Reverse_Speed;
-
-        //Set different speed if the car is on grass. This overrides the reverse/forward speed (and it is the slowest)
-        if (useGrassSpeedLimit)
-            speedLimit = SharedResources.GCS_Maximum_Car_Grass_Speed;
+            comparedToLimit = Float.compare(_Speed, curve.get_SpeedLimit());
 
         //If the limit is reached, no reason to accelerate
-        if (_Speed == speedLimit)
+        if (comparedToLimit == 0)
         {
-            SharedResources.MainController.get_GameEngine().CarAccelerationStopped();
+            _Session.get_GameEngine().CarAccelerationStopped(this);
             return;
         }
 
-        //Accelerates if speed limit is not hit
-        if(_Speed < speedLimit)
+        //If currently the speed is higher then allowed, then slow down (e.g. from road to grass)
+        if (comparedToLimit > 0)
         {
-            //If the car is just starting, give a fix boost
-            if (_Speed == 0) {
-                _Speed = SharedResources.GCS_Maximum_Car_Speed * SharedResources.GCS_Car_ColdStart_Acceleration_Percentage;
-                SharedResources.MainController.get_GameEngine().CarAccelerationOccurred();
-            }
-            //Radical acceleration on low speeds
-            else if (_Speed < (SharedResources.GCS_Maximum_Car_Speed * SharedResources.GCS_Car_RadicalAcceleration_SpeedLimit)) {
-                _Speed *= SharedResources.GCS_Car_RadicalAcceleration_Ratio;
-                SharedResources.MainController.get_GameEngine().CarAccelerationOccurred();
-            }
-            //Normal acceleration on medium speeds
-            else if (_Speed < (SharedResources.GCS_Maximum_Car_Speed * SharedResources.GCS_Car_NormalAcceleration_SpeedLimit)) {
-                _Speed *= SharedResources.GCS_Car_NormalAcceleration_Ratio;
-                SharedResources.MainController.get_GameEngine().CarAccelerationOccurred();
-            }
-            //Slow acceleration on high speeds
-            else {
-                _Speed *= SharedResources.GCS_Car_HighSpeedAcceleration_Ratio;
-                SharedResources.MainController.get_GameEngine().CarAccelerationOccurred();
-            }
-
-            //preventing over accelerating speed limit
-            if(_Speed > speedLimit)
-            {
-                _Speed = speedLimit;
-                SharedResources.MainController.get_GameEngine().CarAccelerationStopped();
-            }
+            _Session.get_GameEngine().CarAccelerationStopped(this);
+            SlowDown();
+            return;
         }
 
-        //If currently the speed is higher then allowed, then slow down (e.g. from road to grass)
-        if(_Speed > speedLimit)
+        //Accelerates, but not over the speed limit
+        boolean isLimitReached;
+        if (_FixedPointMode)
         {
-            SharedResources.MainController.get_GameEngine().CarAccelerationStopped();
-            SlowDown();
+            _FixedSpeed = curve.NextFixedSpeed(_FixedSpeed);
+            isLimitReached = _FixedSpeed == curve.get_FixedSpeedLimit();
         }
+        else
+        {
+            _Speed = curve.NextSpeed(_Speed);
+            isLimitReached = _Speed == curve.get_SpeedLimit();
+        }
+        _Session.get_GameEngine().CarAccelerationOccurred(this);
+        if (isLimitReached)
+            _Session.get_GameEngine().CarAccelerationStopped(this);
     }
 
-
     /**
      * Accelerates a forwarding car using variable rate acceleration.
      */
@@ -520,42 +698,68 @@ public class Car
      */
     private void SlowDown()
     {
+        if (_FixedPointMode)
+        {
+            if (_FixedSpeed <= _Physics.FixedStopThreshold)
+            {
+                _FixedSpeed = 0;
+                _ReverseMode = false;
+            }
+            else
+            {
+                _FixedSpeed = FixedPointMath.Multiply(_FixedSpeed, _Physics.FixedSlowdownRatio);
+            }
+            return;
+        }
+
         //Lower the speed, based on current speed.
-        if(_Speed <= SharedResources.GCS_CarNoAcceleration_Stop_Threshold)
+        if(_Speed <= _Physics.StopThreshold)
         {
             _Speed = 0;
             _ReverseMode = false;
         }
         else
         {
-            _Speed *= SharedResources.GCS_Car_NoAcceleration_Slowdown_Ratio;
+            _Speed *= _Physics.SlowdownRatio;
         }
     }
 
     /**
-     * Retrieves the JLabel associated with this car object.
-     * @return The JLabel associated with this car object.
+     * Stops the car immediately (e.g. it hit a wall).
      */
-    public CarInGameDisplayLabel get_CarDisplay()
+    private void ZeroSpeed()
     {
-        return _CarDisplay;
+        _Speed = 0;
+        _FixedSpeed = 0;
     }
 
-
     /**
-     * Associates the JLabel with this car object.
-     * Also resets to the default values.
-     * @param _CarDisplay The JLabel to cooperate with.
+     * Resets the car to the default values and places it to its starting location.
+     * Called by the GameEngine at the start of the game.
+     * @param x The X coordinate of the top left corner of the car's image.
+     * @param y The Y coordinate of the top left corner of the car's image.
+     * @param angle The starting angle in degrees, clockwise from North. The car faces the closest angle index (see SharedResources.CAR_Simulated_Angle_Count).
      */
-    public void set_CarDisplay(CarInGameDisplayLabel _CarDisplay) {
-        this._CarDisplay = _CarDisplay;
+    public void ResetForNewGame(int x, int y, int angle) {
+        _Location.setLocation(x, y);
+        SnapSubPixelToLocation();
         _ReverseMode = false;
         _OnGrass = false;
         _LastMoveHitTheWall = false;
         _LastMoveHitOtherCar = false;
         _Speed = 0;
-        _CurrentAngle = 0;
-        _CurrentlyPressedKeys = new HashSet<>(20); //Leaving enough space for the possible keys
+        _FixedSpeed = 0;
+        _FixedPointMode = _Session.get_DeterministicPhysics();
+        _Physics = _Session.GetCarTickPhysics(_CarImageFileIndex);
+        _VirtualSpeedRatio = SharedResources.GCS_Car_Virtual_Speed_Max / _Physics.MaximumSpeed;
+        _Masks = ImageFileLoader.LoadCarMasks(_CarImageFileIndex);
+        if (_Masks == null)
+            _Masks = CarMask.GetBoundsMasks(); //Using the car's polygons if its images could not be read
+        _AngleIndex = GetAngleIndexFromAngle(angle);
+        _KeyboardInput = CarInput.NONE;
+        _KeyboardTaps = CarInput.NONE;
+        _PreviousInput = CarInput.NONE;
+        _TurnProgress = 0;
     }
 
     /**
@@ -565,32 +769,17 @@ public class Car
      */
     public int GetVirtualSpeed()
     {
-        int result = (int)(_Speed * _VirtualSpeedRatio);
+        float speed = _FixedPointMode ? FixedPointMath.ToFloat(_FixedSpeed) : _Speed;
+        int result = (int)(speed * _VirtualSpeedRatio);
 
         //Allowing to reach virtual max speed (removes rounding inaccuracy)
-        if(_Speed >= SharedResources.GCS_Maximum_Car_Speed)
+        if(speed >= _Physics.MaximumSpeed)
             result = SharedResources.GCS_Car_Virtual_Speed_Max;
 
         //Show virtual zero speed when the car hit a wall
         if (_LastMoveHitTheWall)
             result = 0;
 
-        //When the speed is low number, the car will not be moved as the
-        //speed is not enough to move it by 1 pixel. However, the actual value of the
-        // _Speed variable is above 0.
-        // This inconsistency should be masked from the HUD, otherwise a still car will be shown with speed.
-        if (_Speed <= SharedResources.HUD_StillCar_Speed_VirtualValue_Masking_Threshold)
-            result = 0;
-
         return result;
     }
-
-    /**
-     * Retrieves an image from disk representing a crashed car.
-     * @return Retrieves an image from disk representing a crashed car.
-     */
-    public Image GetCrashedCarImage()
-    {
-        return ImageFileLoader.LoadCrashedCarImage();
-    }
 }
@@ -0,0 +1,75 @@
+package ModelLayer;
+
+import ControlLayer.SharedResources;
+
+/**
+ * The controls of a car in a tick, packed into an int (input word), one bit for each control.
+ * The input word is the only input the car's physics consume (see Car.CalculateNextFrame), whether it comes from the keyboard,
+ * a replay or the network. The keyboard state is captured into an input word once per tick (see Car.CaptureKeyboardInput),
+ * so the simulation does no key code lookups, boxing or hashing.
+ */
+public final class CarInput
+{
+    /**
+     * No control is pressed.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The accelerate (up) control is pressed.
+     */
+    public static final int ACCELERATE = 1;
+
+    /**
+     * The brake (backward) control is pressed.
+     */
+    public static final int BRAKE = 1 << 1;
+
+    /**
+     * The turn left (counter clockwise) control is pressed.
+     */
+    public static final int TURN_LEFT = 1 << 2;
+
+    /**
+     * The turn right (clockwise) control is pressed.
+     */
+    public static final int TURN_RIGHT = 1 << 3;
+
+    /**
+     * The bits of the controls, in the same order as the keys of SharedResources.GCS_ControlKeys_Player_1 and GCS_ControlKeys_Player_2.
+     */
+    private static final int[] CONTROL_BITS = {ACCELERATE, BRAKE, TURN_LEFT, TURN_RIGHT};
+
+    private CarInput()
+    {
+    }
+
+    /**
+     * Returns the control bit of a key of a player.
+     * @param keyCode The keycode of the key.
+     * @param controlKeys The control keys of the player (e.g. SharedResources.GCS_ControlKeys_Player_1).
+     * @return The bit of the control the key belongs to. NONE if the key is not a control key of the player.
+     */
+    public static int FromKeyCode(int keyCode, int[] controlKeys)
+    {
+        for (int i = 0; i < controlKeys.length; i++)
+        {
+            if (controlKeys[i] == keyCode)
+                return CONTROL_BITS[i];
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the control bit of a key of any player.
+     * @param keyCode The keycode of the key.
+     * @return The bit of the control the key belongs to. NONE if the key is not a control key.
+     */
+    public static int FromKeyCode(int keyCode)
+    {
+        int control = FromKeyCode(keyCode, SharedResources.GCS_ControlKeys_Player_1);
+        if (control == NONE)
+            control = FromKeyCode(keyCode, SharedResources.GCS_ControlKeys_Player_2);
+        return control;
+    }
+}
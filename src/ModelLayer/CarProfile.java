@@ -0,0 +1,129 @@
+package ModelLayer;
+
+import ControlLayer.SharedResources;
+
+import java.util.Properties;
+
+/**
+ * The handling of a car (speed limits, acceleration, slowdown and turning), in per second units.
+ * Each selectable car has its own profile, loaded from a data file (see CarProfileLoader), so the cars can drive differently.
+ * The values are converted to one simulation tick, and the acceleration is compiled into lookup tables, by TickPhysics.
+ * A value missing from the data file is taken from the default handling in SharedResources.
+ * The accelerations are given in the data file as speed multipliers per SharedResources.GCS_Car_Profile_Factor_Period_Seconds
+ * (e.g. 1.5 means the speed is multiplied by 1.5 in every 40ms), the same way as the comments of the defaults describe them.
+ * This class is used as a simple structure.
+ */
+public class CarProfile
+{
+    /**
+     * The handling of SharedResources (used when a car has no profile).
+     */
+    public static final CarProfile DEFAULT = new CarProfile(new Properties());
+
+    /* Speeds in pixels per second */
+    public final float MaximumSpeed;
+    public final float MaximumReverseSpeed;
+    public final float MaximumGrassSpeed;
+    public final float MaximumGrassReverseSpeed;
+    public final float StopThreshold;
+
+    /* Speeds as a percentage of MaximumSpeed (0-1) */
+    public final float ColdStartPercentage;
+    public final float RadicalAccelerationSpeedLimit;
+    public final float NormalAccelerationSpeedLimit;
+
+    /* Turning in degrees per second while a turn control is held */
+    public final float TurnRate;
+
+    /* Exponential rates per second: the speed is multiplied by e^(rate * elapsed seconds) */
+    public final double RadicalAccelerationRate;
+    public final double NormalAccelerationRate;
+    public final double HighSpeedAccelerationRate;
+    public final double SlowdownRate;
+
+    /**
+     * Reads the handling of a car from the values of its data file.
+     * @param values The values of the data file. The missing values are taken from the defaults of SharedResources.
+     * @throws IllegalArgumentException If a value is not a valid number, or out of its range.
+     */
+    public CarProfile(Properties values)
+    {
+        MaximumSpeed = ReadPositive(values, "MaximumSpeedPerSecond", SharedResources.GCS_Maximum_Car_Speed_PerSecond);
+        MaximumReverseSpeed = ReadPositive(values, "MaximumReverseSpeedPerSecond", SharedResources.GCS_Maximum_Car_Reverse_Speed_PerSecond);
+        MaximumGrassSpeed = ReadPositive(values, "MaximumGrassSpeedPerSecond", SharedResources.GCS_Maximum_Car_Grass_Speed_PerSecond);
+        MaximumGrassReverseSpeed = ReadPositive(values, "MaximumGrassReverseSpeedPerSecond", MaximumGrassSpeed);
+        StopThreshold = ReadPositive(values, "StopThresholdPerSecond", SharedResources.GCS_CarNoAcceleration_Stop_Threshold_PerSecond);
+
+        ColdStartPercentage = ReadPercentage(values, "ColdStartPercentage", SharedResources.GCS_Car_ColdStart_Acceleration_Percentage);
+        RadicalAccelerationSpeedLimit = ReadPercentage(values, "RadicalAccelerationSpeedLimit", SharedResources.GCS_Car_RadicalAcceleration_SpeedLimit);
+        NormalAccelerationSpeedLimit = ReadPercentage(values, "NormalAccelerationSpeedLimit", SharedResources.GCS_Car_NormalAcceleration_SpeedLimit);
+        if (RadicalAccelerationSpeedLimit > NormalAccelerationSpeedLimit)
+            throw new IllegalArgumentException("RadicalAccelerationSpeedLimit must not be higher than NormalAccelerationSpeedLimit.");
+
+        TurnRate = ReadPositive(values, "TurnRateDegreesPerSecond", SharedResources.GCS_Car_Turn_Rate_PerSecond);
+
+        RadicalAccelerationRate = ReadRate(values, "RadicalAccelerationFactor", SharedResources.GCS_Car_RadicalAcceleration_Rate_PerSecond, true);
+        NormalAccelerationRate = ReadRate(values, "NormalAccelerationFactor", SharedResources.GCS_Car_NormalAcceleration_Rate_PerSecond, true);
+        HighSpeedAccelerationRate = ReadRate(values, "HighSpeedAccelerationFactor", SharedResources.GCS_Car_HighSpeedAcceleration_Rate_PerSecond, true);
+        SlowdownRate = ReadRate(values, "SlowdownFactor", SharedResources.GCS_Car_NoAcceleration_Slowdown_Rate_PerSecond, false);
+    }
+
+    /**
+     * Reads a positive number from the values of a data file.
+     */
+    private static float ReadPositive(Properties values, String key, float defaultValue)
+    {
+        String value = values.getProperty(key);
+        return value == null ? defaultValue : (float) Parse(key, value, true);
+    }
+
+    /**
+     * Reads a percentage of the maximum speed (above 0, at most 1) from the values of a data file.
+     */
+    private static float ReadPercentage(Properties values, String key, float defaultValue)
+    {
+        float result = ReadPositive(values, key, defaultValue);
+        if (result > 1)
+            throw new IllegalArgumentException("The value of " + key + " must not be higher than 1: " + values.getProperty(key));
+        return result;
+    }
+
+    /**
+     * Reads a speed multiplier per SharedResources.GCS_Car_Profile_Factor_Period_Seconds from the values of a data file,
+     * and converts it to an exponential rate per second.
+     * @param accelerating True if the multiplier must speed the car up (higher than 1), false if it must slow the car down (lower than 1).
+     */
+    private static double ReadRate(Properties values, String key, double defaultRate, boolean accelerating)
+    {
+        String value = values.getProperty(key);
+        if (value == null)
+            return defaultRate;
+
+        double factor = Parse(key, value, false);
+        if (accelerating && factor <= 1)
+            throw new IllegalArgumentException("The value of " + key + " must be higher than 1: " + value);
+        if (!accelerating && factor >= 1)
+            throw new IllegalArgumentException("The value of " + key + " must be lower than 1: " + value);
+        return StrictMath.log(factor) / SharedResources.GCS_Car_Profile_Factor_Period_Seconds;
+    }
+
+    /**
+     * Parses a positive number of a data file.
+     * @param asFloat True to parse the number as a float (so it has the same value as a float literal in the code).
+     */
+    private static double Parse(String key, String value, boolean asFloat)
+    {
+        double result;
+        try
+        {
+            result = asFloat ? Float.parseFloat(value.trim()) : Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("The value of " + key + " is not a number: " + value, e);
+        }
+        if (!(result > 0) || Double.isInfinite(result))
+            throw new IllegalArgumentException("The value of " + key + " must be positive: " + value);
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package ModelLayer;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+
+/**
+ * The images of a car for all its angles (sprites), rotated from one image of the car facing North when the car is loaded.
+ * Drawing a car only selects the sprite of its angle, so no image is rotated while the game runs.
+ * A rotated car may reach out of its square image at the corners, so each sprite is rotated on a larger canvas, and then cropped
+ * to its non-transparent pixels. The bounds of each sprite (its position relative to the top left corner of the car's image and
+ * its size) are kept with it. Cropping keeps the memory of the sprites close to the size of the car itself, at any number of angles.
+ * The sprites are cached per car by the ImageFileLoader, and also used to build the collision masks of the car (see CarMask).
+ */
+public class CarSprites
+{
+    private final BufferedImage _SourceImage; //The image of the car facing North, as read from the disk
+    private final BufferedImage[] _Sprites; //The cropped image of the car for each angle index
+    private final Rectangle[] _Bounds; //The position of each sprite relative to the top left corner of the car's image, and its size
+
+    /**
+     * Rotates the image of a car to all the angles.
+     * @param sourceImage The image of the car facing North (angle index 0).
+     * @param angleCount The number of angles. Angle index i is i * 360 / angleCount degrees clockwise from North.
+     */
+    public CarSprites(BufferedImage sourceImage, int angleCount)
+    {
+        _SourceImage = sourceImage;
+        _Sprites = new BufferedImage[angleCount];
+        _Bounds = new Rectangle[angleCount];
+
+        //The canvas fits the image in any angle (its diagonal), with the image in the middle
+        int width = sourceImage.getWidth();
+        int height = sourceImage.getHeight();
+        int canvasSize = (int) Math.ceil(Math.hypot(width, height));
+        int marginX = (canvasSize - width) / 2;
+        int marginY = (canvasSize - height) / 2;
+
+        for (int i = 0; i < angleCount; i++)
+        {
+            AffineTransform transform = AffineTransform.getTranslateInstance(marginX, marginY);
+            transform.rotate(Math.toRadians(360.0 * i / angleCount), width / 2.0, height / 2.0);
+            BufferedImage canvas = new BufferedImage(canvasSize, canvasSize, BufferedImage.TYPE_INT_ARGB);
+            new AffineTransformOp(transform, AffineTransformOp.TYPE_BILINEAR).filter(sourceImage, canvas);
+
+            Rectangle opaque = FindNonTransparentBounds(canvas);
+            _Sprites[i] = Crop(canvas, opaque);
+            _Bounds[i] = new Rectangle(opaque.x - marginX, opaque.y - marginY, opaque.width, opaque.height);
+        }
+    }
+
+    /**
+     * Returns the number of angles.
+     * @return The number of sprites.
+     */
+    public int GetAngleCount()
+    {
+        return _Sprites.length;
+    }
+
+    /**
+     * Returns the image of the car facing North, as read from the disk (e.g. for the Heads Up Display).
+     * @return The image of the car in its original size.
+     */
+    public BufferedImage get_SourceImage()
+    {
+        return _SourceImage;
+    }
+
+    /**
+     * Returns the sprite of an angle.
+     * @param angleIndex The angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The rotated image of the car, cropped to its non-transparent pixels. Its position is given by GetBounds.
+     */
+    public BufferedImage GetSprite(int angleIndex)
+    {
+        return _Sprites[angleIndex];
+    }
+
+    /**
+     * Returns the bounds of the sprite of an angle.
+     * The same instance is returned every time (so drawing the car does not allocate objects), it must not be modified.
+     * @param angleIndex The angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The position of the sprite relative to the top left corner of the car's image (may be negative), and its size.
+     */
+    public Rectangle GetBounds(int angleIndex)
+    {
+        return _Bounds[angleIndex];
+    }
+
+    /**
+     * Finds the smallest rectangle containing all the non-transparent pixels of an image.
+     * Returns a 1x1 rectangle in the top left corner if the image is fully transparent.
+     */
+    private static Rectangle FindNonTransparentBounds(BufferedImage image)
+    {
+        int minX = image.getWidth(), minY = image.getHeight(), maxX = -1, maxY = -1;
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                if ((image.getRGB(x, y) >>> 24) != 0)
+                {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX < 0)
+            return new Rectangle(0, 0, 1, 1);
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Copies a part of an image into a new image of its size, so the rest of the image can be released.
+     */
+    private static BufferedImage Crop(BufferedImage image, Rectangle area)
+    {
+        BufferedImage result = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        g.drawImage(image, -area.x, -area.y, null);
+        g.dispose();
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package ModelLayer;
+
+/**
+ * A snapshot of a car's state at the end of a simulation tick.
+ * The simulation thread produces these, and the view layer consumes them to draw a finished frame.
+ * The GameEngine reuses the snapshots of its frames (see SimulationFrame), so the ticks do not allocate objects.
+ * This class is used as a simple structure.
+ */
+public class CarState
+{
+    /**
+     * The X coordinate of the top left corner of the car's image.
+     */
+    public int X;
+
+    /**
+     * The Y coordinate of the top left corner of the car's image.
+     */
+    public int Y;
+
+    /**
+     * The angle of the car as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     */
+    public int AngleIndex;
+
+    /**
+     * The virtual speed of the car (0-100 mph scale) to be displayed by the HUD.
+     */
+    public int VirtualSpeed;
+
+    /**
+     * A snapshot of a car's state at the end of a simulation tick.
+     *
+     * @param x            The X coordinate of the top left corner of the car's image.
+     * @param y            The Y coordinate of the top left corner of the car's image.
+     * @param angleIndex   The angle of the car as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @param virtualSpeed The virtual speed of the car (0-100 mph scale).
+     */
+    public CarState(int x, int y, int angleIndex, int virtualSpeed)
+    {
+        Set(x, y, angleIndex, virtualSpeed);
+    }
+
+    /**
+     * Overwrites the snapshot (when it is reused for a new tick).
+     *
+     * @param x            The X coordinate of the top left corner of the car's image.
+     * @param y            The Y coordinate of the top left corner of the car's image.
+     * @param angleIndex   The angle of the car as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @param virtualSpeed The virtual speed of the car (0-100 mph scale).
+     */
+    public void Set(int x, int y, int angleIndex, int virtualSpeed)
+    {
+        X = x;
+        Y = y;
+        AngleIndex = angleIndex;
+        VirtualSpeed = virtualSpeed;
+    }
+}
@@ -1,17 +1,21 @@
 package ModelLayer.CollisionManagement;
 
-import java.awt.*;
-import java.awt.geom.Line2D;
+import java.util.Arrays;
 
 /**
  * Represents a car's edges for a given angle.
  * This is used to improve accuracy of the collision detection.
  * All the possible angles of a car must be represented by one CarBounds instance each.
  * This class represents the car as rotated rectangle (instead of a square).
+ * The corners are precomputed as a convex polygon (their convex hull), which is rasterized into the car's collision mask
+ * when its images cannot be read (see CarMask.GetBoundsMasks), and swept along the car's movement to find the time of
+ * first impact (see CollisionManager.SweepCar). Only integer coordinates are stored, so the results are exact.
  */
 public class CarBounds
 {
-    private final Line2D[] _AllCarBoundLines; //Containes the borders of the car as 4 lines
+    private final int[] _Corners; //The 4 corner points of the car in clockwise order, as x,y pairs. Edge i goes from corner i to corner (i+1)%4.
+    private final int[] _HullX; //The X coordinates of the convex hull of the corners, in winding order
+    private final int[] _HullY; //The Y coordinates of the convex hull of the corners, in winding order
 
     /**
      * Represents a car's edges for a given angle.
@@ -19,7 +23,6 @@ public class CarBounds
      * All the possible angles of a car must be represented by one CarBounds instance each.
      * This class represents the car as rotated rectangle (instead of a square).
      * The parameter coordinates are describing the edge points of the rectangle in a clockwise order.
-     * The points from the inport parameter will be converted to lines.
      *
      * @param p1x Top left point X coordinate
      * @param p1y Top left point Y coordinate
@@ -32,47 +35,136 @@ public class CarBounds
      */
     public CarBounds(int p1x, int p1y, int p2x, int p2y, int p3x, int p3y, int p4x, int p4y)
     {
-        Point _P1 = new Point(p1x, p1y);
-        Point _P2 = new Point(p2x, p2y);
-        Point _P3 = new Point(p3x, p3y);
-        Point _P4 = new Point(p4x, p4y);
+        _Corners = new int[] {p1x, p1y, p2x, p2y, p3x, p3y, p4x, p4y};
 
-        Line2D _L1 = new Line2D.Double();
-        Line2D _L2 = new Line2D.Double();
-        Line2D _L3 = new Line2D.Double();
-        Line2D _L4 = new Line2D.Double();
+        //The corners are not always given in a proper (convex) order, so the convex hull is used as the polygon
+        int[] hull = ConvexHull(_Corners);
+        int n = hull.length / 2;
+        _HullX = new int[n];
+        _HullY = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            _HullX[i] = hull[2 * i];
+            _HullY[i] = hull[2 * i + 1];
+        }
+    }
 
-        _L1.setLine(_P1, _P2);
-        _L2.setLine(_P2, _P3);
-        _L3.setLine(_P3, _P4);
-        _L4.setLine(_P4, _P1);
+    /**
+     * Creates the bounds of a car for all its angles, by rotating its bounds facing North around the center of the car's image.
+     * The rotated corners are rounded to whole pixels and kept within the image. Only StrictMath is used, so the bounds
+     * are the same on every machine (needed by the deterministic physics mode).
+     *
+     * @param north      The bounds of the car facing North (angle index 0).
+     * @param angleCount The number of angles. Angle index i is i * 360 / angleCount degrees clockwise from North.
+     * @param width      The width of the car's image.
+     * @param height     The height of the car's image.
+     * @return The bounds of the car, indexed by the angle index.
+     */
+    public static CarBounds[] CreateRotations(CarBounds north, int angleCount, int width, int height)
+    {
+        //The corners are the top left corners of pixels, so the center is between the two middle pixels
+        double centerX = (width - 1) / 2.0;
+        double centerY = (height - 1) / 2.0;
+        CarBounds[] result = new CarBounds[angleCount];
+        int[] corners = new int[north._Corners.length];
+        for (int i = 0; i < angleCount; i++)
+        {
+            double angleRad = StrictMath.toRadians(360.0 * i / angleCount);
+            double sin = StrictMath.sin(angleRad);
+            double cos = StrictMath.cos(angleRad);
+            for (int c = 0; c < corners.length; c += 2)
+            {
+                double dx = north._Corners[c] - centerX;
+                double dy = north._Corners[c + 1] - centerY;
+                //Clockwise on screen, as the Y axis points down
+                corners[c] = Clamp((int) StrictMath.round(centerX + dx * cos - dy * sin), width - 1);
+                corners[c + 1] = Clamp((int) StrictMath.round(centerY + dx * sin + dy * cos), height - 1);
+            }
+            result[i] = new CarBounds(corners[0], corners[1], corners[2], corners[3], corners[4], corners[5], corners[6], corners[7]);
+        }
+        return result;
+    }
 
-        _AllCarBoundLines = new Line2D[4];
-        _AllCarBoundLines[0] = _L1;
-        _AllCarBoundLines[1] = _L2;
-        _AllCarBoundLines[2] = _L3;
-        _AllCarBoundLines[3] = _L4;
+    /**
+     * Limits a coordinate to the car's image (0 to max inclusive).
+     */
+    private static int Clamp(int value, int max)
+    {
+        return Math.max(0, Math.min(max, value));
     }
 
+    /**
+     * Returns the number of points of the car's convex polygon (the convex hull of the corners).
+     * @return The number of points (3 or 4).
+     */
+    public int GetHullSize()
+    {
+        return _HullX.length;
+    }
 
     /**
-     * Returns the edges of the car described as an array of 4 lines forming a rectangle.
-     *
-     * @param shiftByCarPosition Shifts the edge coordinates with the position of this rectangle.
-     * @return The 4 edges of the car with their position shifted by the shiftByCarPosition input parameter.
+     * Returns the X coordinate of a point of the car's convex polygon (relative to the top left corner of the car's image).
+     * The edge i of the polygon goes from point i to point (i+1)%GetHullSize().
+     * @param i The index of the point.
+     * @return The X coordinate of the point.
      */
-    public Line2D[] GetCarBounds(Rectangle shiftByCarPosition)
+    public int GetHullX(int i)
     {
-        Line2D[] result = new Line2D[4];
+        return _HullX[i];
+    }
+
+    /**
+     * Returns the Y coordinate of a point of the car's convex polygon (relative to the top left corner of the car's image).
+     * @param i The index of the point.
+     * @return The Y coordinate of the point.
+     */
+    public int GetHullY(int i)
+    {
+        return _HullY[i];
+    }
+
+    /**
+     * Calculates the convex hull of points (Andrew's monotone chain). Collinear points are left out.
+     * @param points The points as x,y pairs.
+     * @return The points of the hull as x,y pairs, in winding order.
+     */
+    private static int[] ConvexHull(int[] points)
+    {
+        int n = points.length / 2;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> points[2 * a] != points[2 * b] ? Integer.compare(points[2 * a], points[2 * b]) : Integer.compare(points[2 * a + 1], points[2 * b + 1]));
 
-        for(int i = 0; i<4; i++)
+        int[] hull = new int[2 * n];
+        int k = 0;
+        //Lower hull, then upper hull
+        for (int pass = 0; pass < 2; pass++)
         {
-            result[i] = new Line2D.Double();
-            result[i].setLine(_AllCarBoundLines[i].getX1() + shiftByCarPosition.getX(),
-                    _AllCarBoundLines[i].getY1() + shiftByCarPosition.getY(),
-                    _AllCarBoundLines[i].getX2() + shiftByCarPosition.getX(),
-                    _AllCarBoundLines[i].getY2() + shiftByCarPosition.getY());
+            int start = k;
+            for (int idx = 0; idx < n; idx++)
+            {
+                int i = pass == 0 ? order[idx] : order[n - 1 - idx];
+                while (k >= start + 2 && Cross(hull, k - 2, k - 1, points[2 * i], points[2 * i + 1]) <= 0)
+                    k--;
+                if (k == hull.length / 2)
+                    hull = Arrays.copyOf(hull, hull.length * 2);
+                hull[2 * k] = points[2 * i];
+                hull[2 * k + 1] = points[2 * i + 1];
+                k++;
+            }
+            k--; //The last point of each chain is the first point of the other
         }
-        return result;
+        return Arrays.copyOf(hull, 2 * Math.max(k, 1));
+    }
+
+    /**
+     * Returns the cross product of (b - a) and (p - a), where a and b are points of the hull array.
+     */
+    private static long Cross(int[] hull, int a, int b, int px, int py)
+    {
+        return (long) (hull[2 * b] - hull[2 * a]) * (py - hull[2 * a + 1]) - (long) (hull[2 * b + 1] - hull[2 * a + 1]) * (px - hull[2 * a]);
     }
 }
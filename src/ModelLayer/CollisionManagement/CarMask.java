@@ -0,0 +1,211 @@
+package ModelLayer.CollisionManagement;
+
+import ControlLayer.SharedResources;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Represents the non-transparent pixels of a car's image for a given angle, as a packed bitmask.
+ * This is used for pixel-exact collision detection (car-vs-car and car-vs-grass).
+ * Each row of the image is packed into one long (bit c is the pixel in column c), so the images can be at most 64 pixels wide.
+ * Two masks are tested by shifting the rows of one of them and AND-ing them with the rows of the other,
+ * so 64 pixels are tested with one operation. Only the rows which contain opaque pixels are tested.
+ * If the car's images cannot be read, the masks can be rasterized from the car's polygons (CarBounds) instead (see GetBoundsMasks).
+ */
+public class CarMask
+{
+    private final long[] _Rows; //The packed rows of the image. Bit c of a row is set if the pixel in column c is opaque.
+    private final int _Width; //The width of the image in pixels
+    private final int _FirstRow; //The index of the first row which contains opaque pixels
+    private final int _LastRow; //The index of the last row which contains opaque pixels (smaller than _FirstRow if the image is fully transparent)
+    private static CarMask[] _BoundsMasks; //The masks rasterized from SharedResources.CAR_Simulated_Fine_Bounds (built when first needed)
+
+    /**
+     * Represents the non-transparent pixels of a car's image, as a packed bitmask.
+     *
+     * @param image          The image of the car for a given angle. Must be at most 64 pixels wide.
+     * @param alphaThreshold A pixel is opaque if its alpha value (0-255) is at least this value.
+     */
+    public CarMask(BufferedImage image, int alphaThreshold)
+    {
+        this(image, 0, 0, image.getWidth(), image.getHeight(), alphaThreshold);
+    }
+
+    /**
+     * Represents the non-transparent pixels of a car's sprite, which is placed within the car's image, as a packed bitmask.
+     * The pixels of the sprite outside the car's image are not part of the mask.
+     *
+     * @param sprite         The sprite of the car for a given angle (e.g. rotated and cropped, see CarSprites).
+     * @param spriteX        The X coordinate of the sprite's top left corner, relative to the top left corner of the car's image.
+     * @param spriteY        The Y coordinate of the sprite's top left corner, relative to the top left corner of the car's image.
+     * @param width          The width of the car's image. Must be at most 64 pixels.
+     * @param height         The height of the car's image.
+     * @param alphaThreshold A pixel is opaque if its alpha value (0-255) is at least this value.
+     */
+    public CarMask(BufferedImage sprite, int spriteX, int spriteY, int width, int height, int alphaThreshold)
+    {
+        if (width > Long.SIZE)
+            throw new IllegalArgumentException("The car image must be at most " + Long.SIZE + " pixels wide.");
+
+        _Width = width;
+        _Rows = new long[height];
+        int fromX = Math.max(0, spriteX);
+        int toX = Math.min(width, spriteX + sprite.getWidth());
+        int fromY = Math.max(0, spriteY);
+        int toY = Math.min(height, spriteY + sprite.getHeight());
+        for (int y = fromY; y < toY; y++)
+        {
+            for (int x = fromX; x < toX; x++)
+            {
+                if ((sprite.getRGB(x - spriteX, y - spriteY) >>> 24) >= alphaThreshold)
+                    _Rows[y] |= 1L << x;
+            }
+        }
+        _FirstRow = FirstNonEmptyRow(_Rows);
+        _LastRow = LastNonEmptyRow(_Rows);
+    }
+
+    /**
+     * Represents the pixels covered by a car's polygon, as a packed bitmask.
+     * A pixel is covered if its top left corner is inside the polygon (or on its edge).
+     *
+     * @param bounds The polygon of the car for a given angle.
+     * @param width  The width of the car's image. Must be at most 64 pixels.
+     * @param height The height of the car's image.
+     */
+    public CarMask(CarBounds bounds, int width, int height)
+    {
+        if (width > Long.SIZE)
+            throw new IllegalArgumentException("The car image must be at most " + Long.SIZE + " pixels wide.");
+
+        _Width = width;
+        _Rows = new long[height];
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                if (IsInsidePolygon(bounds, x, y))
+                    _Rows[y] |= 1L << x;
+            }
+        }
+        _FirstRow = FirstNonEmptyRow(_Rows);
+        _LastRow = LastNonEmptyRow(_Rows);
+    }
+
+    /**
+     * Returns the masks rasterized from the car polygons of SharedResources.CAR_Simulated_Fine_Bounds (one for each angle).
+     * Used for the cars whose images could not be read.
+     * @return The masks, indexed by the angle index.
+     */
+    public static synchronized CarMask[] GetBoundsMasks()
+    {
+        if (_BoundsMasks == null)
+        {
+            CarMask[] masks = new CarMask[SharedResources.CAR_Simulated_Fine_Bounds.length];
+            for (int i = 0; i < masks.length; i++)
+            {
+                masks[i] = new CarMask(SharedResources.CAR_Simulated_Fine_Bounds[i], SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y);
+            }
+            _BoundsMasks = masks;
+        }
+        return _BoundsMasks;
+    }
+
+    /**
+     * Checks if a point is inside a convex polygon (or on its edge), with exact integer arithmetic.
+     */
+    private static boolean IsInsidePolygon(CarBounds bounds, int x, int y)
+    {
+        boolean hasPositive = false, hasNegative = false;
+        int n = bounds.GetHullSize();
+        for (int i = 0; i < n; i++)
+        {
+            int j = (i + 1) % n;
+            long cross = (long) (bounds.GetHullX(j) - bounds.GetHullX(i)) * (y - bounds.GetHullY(i))
+                    - (long) (bounds.GetHullY(j) - bounds.GetHullY(i)) * (x - bounds.GetHullX(i));
+            hasPositive |= cross > 0;
+            hasNegative |= cross < 0;
+        }
+        return !(hasPositive && hasNegative);
+    }
+
+    /**
+     * Returns the index of the first row which is not empty (rows.length if all the rows are empty).
+     */
+    private static int FirstNonEmptyRow(long[] rows)
+    {
+        int row = 0;
+        while (row < rows.length && rows[row] == 0)
+            row++;
+        return row;
+    }
+
+    /**
+     * Returns the index of the last row which is not empty (-1 if all the rows are empty).
+     */
+    private static int LastNonEmptyRow(long[] rows)
+    {
+        int row = rows.length - 1;
+        while (row >= 0 && rows[row] == 0)
+            row--;
+        return row;
+    }
+
+    /**
+     * Returns a packed row of the mask.
+     * @param row The index of the row.
+     * @return The row. Bit c is set if the pixel in column c is opaque.
+     */
+    long GetRow(int row)
+    {
+        return _Rows[row];
+    }
+
+    /**
+     * Returns the index of the first row which contains opaque pixels.
+     * @return The index of the first row which contains opaque pixels.
+     */
+    int GetFirstRow()
+    {
+        return _FirstRow;
+    }
+
+    /**
+     * Returns the index of the last row which contains opaque pixels.
+     * @return The index of the last row which contains opaque pixels (smaller than GetFirstRow if the mask is empty).
+     */
+    int GetLastRow()
+    {
+        return _LastRow;
+    }
+
+    /**
+     * Checks if this car overlaps an other car (at least one opaque pixel of each is at the same place).
+     *
+     * @param x      The X coordinate of the top left corner of this car's image.
+     * @param y      The Y coordinate of the top left corner of this car's image.
+     * @param other  The mask of the other car (for its current angle).
+     * @param otherX The X coordinate of the top left corner of the other car's image.
+     * @param otherY The Y coordinate of the top left corner of the other car's image.
+     * @return True if the two cars overlap.
+     */
+    public boolean Overlaps(int x, int y, CarMask other, int otherX, int otherY)
+    {
+        //The position of the other car relative to this car
+        int dx = otherX - x;
+        int dy = otherY - y;
+        if (dx >= _Width || -dx >= other._Width)
+            return false;
+
+        int from = Math.max(_FirstRow, other._FirstRow + dy);
+        int to = Math.min(_LastRow, other._LastRow + dy);
+        for (int row = from; row <= to; row++)
+        {
+            long otherRow = other._Rows[row - dy];
+            long shifted = dx >= 0 ? otherRow << dx : otherRow >>> -dx;
+            if ((_Rows[row] & shifted) != 0)
+                return true;
+        }
+        return false;
+    }
+}
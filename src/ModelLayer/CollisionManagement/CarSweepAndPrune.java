@@ -0,0 +1,146 @@
+package ModelLayer.CollisionManagement;
+
+import ModelLayer.Car;
+import ModelLayer.Player;
+
+import java.util.List;
+
+/**
+ * Sweep-and-prune broadphase for the car-vs-car collisions.
+ * Keeps the cars sorted by their X coordinate. The order is updated incrementally (insertion sort) every time a car moves,
+ * which is cheap, as a car only passes a few others in one move. A query then only visits the cars within one car width
+ * on the X axis, instead of every car, so only the nearby cars go to the narrow phase (CarMask.Overlaps).
+ * Not thread-safe: the CollisionManager only uses it under the simulation lock.
+ */
+public class CarSweepAndPrune
+{
+    private final Car[] _Cars; //The cars sorted by their X coordinate
+    private final int[] _Keys; //The X coordinate of each car in the _Cars array (the sort key)
+
+    /**
+     * Sorts the cars of the players by their current X coordinate.
+     * @param players The players currently in game. Their cars must be placed already.
+     */
+    public CarSweepAndPrune(List<Player> players)
+    {
+        _Cars = new Car[players.size()];
+        _Keys = new int[players.size()];
+        for (int i = 0; i < _Cars.length; i++)
+        {
+            _Cars[i] = players.get(i).get_Car();
+            _Keys[i] = _Cars[i].GetLocationX();
+            SortDown(i);
+        }
+    }
+
+    /**
+     * Updates the order after a car moved.
+     * @param car  The car which moved.
+     * @param oldX The X coordinate of the car before the move.
+     */
+    public void CarMoved(Car car, int oldX)
+    {
+        int newX = car.GetLocationX();
+        if (newX == oldX)
+            return;
+
+        //Find the car among the cars with the same key
+        int slot = FirstSlotFrom(oldX);
+        while (_Cars[slot] != car)
+            slot++;
+
+        _Keys[slot] = newX;
+        if (newX < oldX)
+            SortDown(slot);
+        else
+            SortUp(slot);
+    }
+
+    /**
+     * Returns the first slot, where the X coordinate of the car is larger or equal to x (binary search).
+     * @param x The X coordinate.
+     * @return The first slot with a key larger or equal to x. GetCount() if there is none.
+     */
+    public int FirstSlotFrom(int x)
+    {
+        int low = 0;
+        int high = _Keys.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (_Keys[middle] < x)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of cars.
+     * @return The number of cars.
+     */
+    public int GetCount()
+    {
+        return _Cars.length;
+    }
+
+    /**
+     * Returns the car in a slot of the sorted order.
+     * @param slot The slot, starting from 0.
+     * @return The car in the slot.
+     */
+    public Car GetCar(int slot)
+    {
+        return _Cars[slot];
+    }
+
+    /**
+     * Returns the X coordinate of the car in a slot of the sorted order.
+     * @param slot The slot, starting from 0.
+     * @return The X coordinate of the car (as of its last move).
+     */
+    public int GetKey(int slot)
+    {
+        return _Keys[slot];
+    }
+
+    /**
+     * Moves a car towards the start of the array, until it is in order.
+     * @param slot The current slot of the car.
+     */
+    private void SortDown(int slot)
+    {
+        while (slot > 0 && _Keys[slot - 1] > _Keys[slot])
+        {
+            Swap(slot - 1, slot);
+            slot--;
+        }
+    }
+
+    /**
+     * Moves a car towards the end of the array, until it is in order.
+     * @param slot The current slot of the car.
+     */
+    private void SortUp(int slot)
+    {
+        while (slot < _Keys.length - 1 && _Keys[slot + 1] < _Keys[slot])
+        {
+            Swap(slot, slot + 1);
+            slot++;
+        }
+    }
+
+    /**
+     * Swaps two slots.
+     */
+    private void Swap(int a, int b)
+    {
+        Car car = _Cars[a];
+        _Cars[a] = _Cars[b];
+        _Cars[b] = car;
+        int key = _Keys[a];
+        _Keys[a] = _Keys[b];
+        _Keys[b] = key;
+    }
+}
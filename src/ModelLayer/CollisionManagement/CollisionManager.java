@@ -6,160 +6,540 @@ import ModelLayer.Enumerations.InGameObjectType;
 import ModelLayer.Player;
 
 import java.awt.*;
-import java.awt.geom.Line2D;
 import java.util.ArrayList;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Calculates collisions between map objects and cars.
+ * The collisions are pixel-exact: they are tested on the bitmasks built from the car images (CarMask).
+ * The car-vs-map tests sample the map's rasterized surfaces (TerrainGrid) under the car's mask, so their cost does not depend
+ * on the number of map objects. CheckPosition answers all the questions about a car's move (car hit, wall hit, grass) at once,
+ * with one pass over the surfaces under the car.
+ * Only the cars found nearby by the sweep-and-prune broadphase (CarSweepAndPrune) are tested, so many cars can race at once.
+ * A moving car can also be swept along its displacement (SweepCar), which finds the time of the first impact, so fast cars
+ * cannot tunnel through thin walls or other cars between two ticks.
+ * For the sweep the map objects are looked up in a spatial grid (MapObjectGrid), so only the objects near the car are tested.
+ * The queries do not allocate any objects, and all the tests use exact integer arithmetic, so the results are the same
+ * on every machine (in both physics modes).
+ * For AI drivers many candidate moves of many cars can be evaluated at once (EvaluateCandidates), optionally on the cores of a
+ * ForkJoinPool (e.g. the pool of the MatchScheduler which runs the match).
+ * For bots and driver-assist features, the map can also be queried with rays (CastRay, GetWallDistance) and for the nearest
+ * wall (GetNearestWallDistance). These work on the map objects' geometry in floating point, and are not used by the physics.
  */
 public class CollisionManager
 {
+    /**
+     * Outcome bit of a candidate move (see EvaluateCandidates): the car would collide with an other car.
+     */
+    public static final int OUTCOME_HIT_CAR = 1;
+
+    /**
+     * Outcome bit of a candidate move (see EvaluateCandidates): the car would collide with an impassable map object (edge, tree).
+     */
+    public static final int OUTCOME_HIT_WALL = 2;
+
+    /**
+     * Outcome bit of a candidate move (see EvaluateCandidates): the car would be on grass.
+     */
+    public static final int OUTCOME_ON_GRASS = 4;
+
     private final ArrayList<Player> _Players; //Reference to the list of Players
-    private final ArrayList<MapObject> _MapObjects; //The list of map objects the players' cars can collide with
+    private static final InGameObjectType[] IMPASSABLE_TYPES = {InGameObjectType.OUTOFMAP, InGameObjectType.TREE}; //The types of the map objects a car cannot pass through
+    private static final InGameObjectType[] GRASS_TYPES = {InGameObjectType.GRASS}; //The types of the map objects which slow the car down
+    private static final int IMPASSABLE_SURFACES = SurfaceBits(IMPASSABLE_TYPES); //The impassable types as bits of a TerrainGrid sample
+    private static final int GRASS_SURFACES = SurfaceBits(GRASS_TYPES); //The grass types as bits of a TerrainGrid sample
+    private final MapObjectGrid _MapObjectGrid; //The spatial grid over the map objects the players' cars can collide with
+    private final MapObject[] _Candidates; //Reused buffer for the map objects returned by a grid query
+    private final TerrainGrid _Terrain; //The map objects rasterized into surfaces, for the car-vs-map tests
+    private final CarSweepAndPrune _CarBroadphase; //The cars sorted along the X axis, to find the nearby cars quickly
+    private final Car[] _NearbyCars; //Reused for the cars near the candidate moves of a car (sequential evaluation)
+    private Car[][] _PartNearbyCars = new Car[0][]; //Reused for the cars near the candidate moves of a car, one for each part of a parallel evaluation (grown to the parallelism of the pool)
+    private final Rectangle _QueryArea = new Rectangle(); //Reused for the area of a grid query (e.g. the area covered by a car moving along its displacement)
 
     /**
      * Calculates collisions between map objects and cars.
      *
-     * @param Players    The list of Players currently in game
+     * @param Players    The list of Players currently in game. Their cars must be placed already.
      * @param MapObjects //The list of map objects the players' cars can collide with
      */
     public CollisionManager(ArrayList<Player> Players, ArrayList<MapObject> MapObjects)
+    {
+        this(Players, MapObjects, new TerrainGrid(MapObjects));
+    }
+
+    /**
+     * Calculates collisions between map objects and cars.
+     *
+     * @param Players    The list of Players currently in game. Their cars must be placed already.
+     * @param MapObjects The list of map objects the players' cars can collide with. The coordinates must be integers.
+     * @param Terrain    The same map objects rasterized (e.g. the one cached by the MapModel, see MapModel.GetTerrainGrid).
+     */
+    public CollisionManager(ArrayList<Player> Players, ArrayList<MapObject> MapObjects, TerrainGrid Terrain)
     {
         this._Players = Players;
-        this._MapObjects = MapObjects;
+        this._MapObjectGrid = new MapObjectGrid(MapObjects, SharedResources.CM_Grid_Cell_Size);
+        this._Candidates = new MapObject[_MapObjectGrid.GetObjectCount()];
+        this._Terrain = Terrain;
+        this._CarBroadphase = new CarSweepAndPrune(Players);
+        this._NearbyCars = new Car[Players.size()];
+    }
+
+    /**
+     * Converts surface types to the bits used by TerrainGrid.Sample.
+     * @param types The surface types.
+     * @return The types as bits (1 &lt;&lt; the ordinal of the type).
+     */
+    private static int SurfaceBits(InGameObjectType[] types)
+    {
+        int result = 0;
+        for (InGameObjectType type : types)
+        {
+            result |= 1 << type.ordinal();
+        }
+        return result;
+    }
+
+    /**
+     * Must be called after a car moved, so the broadphase keeps the cars in order.
+     * @param car  The car which moved.
+     * @param oldX The X coordinate of the car before the move.
+     */
+    public void CarMoved(Car car, int oldX)
+    {
+        _CarBroadphase.CarMoved(car, oldX);
     }
 
 
     /**
-     * Checks collision between a car and impassable map objects, such as map edges or trees.
+     * Checks collision between a car and impassable map objects, such as map edges or trees, pixel-exact.
      * @param r The car represented as a rectangle.
-     * @param angleIndex The current angle of the car. This is used to provide more accurate calculation.
+     * @param mask The mask of the car for its angle.
      * @return True if the car collides any of the impassable in-map objects. False if not.
      */
-    public boolean IsCollidingWithImpassable(Rectangle r, int angleIndex)
+    public boolean IsCollidingWithImpassable(Rectangle r, CarMask mask)
     {
-        boolean result;
-        Stream<MapObject> impassables =  _MapObjects.stream().filter(m -> (m.Type == InGameObjectType.OUTOFMAP || m.Type == InGameObjectType.TREE) );
-        result = impassables.anyMatch(i -> (isIntersecting(r, angleIndex, i.Rec) || isIntersecting(r, angleIndex, i.Line)));
-        return  result;
+        return _Terrain.Sample(mask, r.x, r.y, IMPASSABLE_SURFACES) != 0;
     }
 
     /**
-     * Check collisions between a car and grass area.
-     * @param r The car represented as a rectangle.
-     * @param angleIndex The current angle of the car. This is used to provide more accurate calculation.
-     * @return True if the car collides with grass area. False if not.
+     * Checks a car on a proposed position for all kinds of collisions at once: other cars, impassable map objects and grass.
+     * The car's mask is looked up once, and the surfaces under the car are sampled in one pass.
+     * @param requester The car to check. This is also used for preventing self-compare.
+     * @param r The car represented as a rectangle (on the proposed position).
+     * @param angleIndex The (proposed) angle of the car.
+     * @param checkCars True to check the other cars as well (not relevant in single player mode).
+     * @param result Filled with the result of the check.
      */
-    public boolean IsCollidingWithGrass(Rectangle r, int angleIndex)
+    public void CheckPosition(Car requester, Rectangle r, int angleIndex, boolean checkCars, CollisionResult result)
     {
-        boolean result;
-        Stream<MapObject> grasses =  _MapObjects.stream().filter(m -> (m.Type == InGameObjectType.GRASS) );
-        result = grasses.anyMatch(i -> (isIntersecting(r, angleIndex, i.Rec) || isIntersecting(r, angleIndex, i.Line)));
-        return  result;
+        CarMask mask = requester.GetMask(angleIndex);
+        CheckPosition(mask, r.x, r.y, result);
+        result.HitCar = checkCars && isCollidingWithOtherCars(requester, mask, r.x, r.y);
     }
 
     /**
-     * Check collisions between two cars.
-     * @param requester The requested car object. This is used for preventing self-compare.
-     * @param position The car represented as a rectangle.
-     * @param angleIndex The current angle of the car. This is used to provide more accurate calculation.
-     * @return True if the car collides with other car. False if not.
+     * Checks a car on a proposed position against the map only (impassable map objects and grass), in one pass.
+     * Used for cars which are not in the list of players (e.g. the cars of a CarFleet).
+     * @param mask The mask of the car for its (proposed) angle.
+     * @param x The X coordinate of the top left corner of the car's image.
+     * @param y The Y coordinate of the top left corner of the car's image.
+     * @param result Filled with the result of the check. HitCar is always false.
      */
-    public boolean isCollidingWithOtherCars(Car requester, Rectangle position, int angleIndex)
+    public void CheckPosition(CarMask mask, int x, int y, CollisionResult result)
     {
-        boolean result;
-        Stream<Player> otherPlayers = _Players.stream().filter(p -> p.get_Car() != requester);
-        result = otherPlayers.anyMatch(p -> isIntersecting(position, angleIndex, p.get_Car().GetBoundsAsRectangle(), p.get_Car().GetCurrentAngleIndex()));
-        return result;
+        int surfaces = _Terrain.Sample(mask, x, y, IMPASSABLE_SURFACES | GRASS_SURFACES);
+        result.HitCar = false;
+        result.HitWall = (surfaces & IMPASSABLE_SURFACES) != 0;
+        result.OnGrass = (surfaces & GRASS_SURFACES) != 0;
     }
 
     /**
-     * Checks if the two input cars are colliding with each other.
-     * @param car1 The first car to compare.
-     * @param angle1 The current angle of the first car.
-     * @param car2 The second car to compare.
-     * @param angle2 The current angle of the second car.
-     * @return Returns true if the two cars are colliding. False if not.
+     * Evaluates candidate moves (positions with angles) of many cars at once, e.g. the steering options of AI drivers.
+     * The candidates of car i are the indexes from firstCandidate[i] (inclusive) to firstCandidate[i+1] (exclusive) of the
+     * candidate arrays. The other cars near a car are collected once, for all of its candidates (from the area covering them).
+     * The other cars are taken at their current positions. Nothing is moved, so the cars must not move during the evaluation
+     * (it must be called under the simulation lock, like the other queries).
+     *
+     * @param cars           The cars whose candidates are evaluated.
+     * @param firstCandidate The index of the first candidate of each car. Must have one more element than cars (the end of the last car's candidates).
+     * @param x              The X coordinates of the top left corner of the car's image for each candidate.
+     * @param y              The Y coordinates of the top left corner of the car's image for each candidate.
+     * @param angleIndex     The angle index of each candidate.
+     * @param checkCars      True to check the other cars as well (not relevant in single player mode).
+     * @param pool           The pool to spread the cars across (worth it for many cars or many candidates), e.g. the pool of the
+     *                       MatchScheduler (see MatchScheduler.get_Pool). The cars are split into one part per thread of the pool,
+     *                       each with its own reused buffers. Null to evaluate all the cars on the calling thread (no allocation).
+     * @param outcomes       Filled with the outcome of each candidate, as a combination of the OUTCOME_* bits (0 if the move is free).
      */
-    private boolean isIntersecting(Rectangle car1, int angle1, Rectangle car2, int angle2)
+    public void EvaluateCandidates(Car[] cars, int[] firstCandidate, int[] x, int[] y, int[] angleIndex, boolean checkCars, ForkJoinPool pool, int[] outcomes)
     {
-        boolean result = false;
-        Line2D[] carLines1 = SharedResources.CAR_Simulated_Fine_Bounds[angle1].GetCarBounds(car1);
-        Line2D[] carLines2 = SharedResources.CAR_Simulated_Fine_Bounds[angle2].GetCarBounds(car2);
+        if (firstCandidate.length != cars.length + 1)
+            throw new IllegalArgumentException("The firstCandidate array must have one more element than the cars array.");
 
-        //Compare 4 lines against the 4 other lines. This is 16 comparison (in case of 2 cars).
-        for (Line2D aCarLines1 : carLines1) {
-            for (Line2D aCarLines2 : carLines2) {
-                result = aCarLines1.intersectsLine(aCarLines2);
-                if (result)
-                    return result;
+        int parts = pool == null ? 1 : Math.min(cars.length, pool.getParallelism());
+        if (parts > 1)
+        {
+            if (_PartNearbyCars.length < parts)
+            {
+                _PartNearbyCars = new Car[parts][];
+                for (int i = 0; i < parts; i++)
+                    _PartNearbyCars[i] = new Car[_NearbyCars.length];
+            }
+
+            CandidateBatch batch = new CandidateBatch(cars, firstCandidate, x, y, angleIndex, checkCars, outcomes, parts, 0, parts);
+            //Already on a thread of the pool (e.g. ticking a match): the batch is forked there, instead of waiting for it as an outside task
+            if (ForkJoinTask.getPool() == pool)
+                batch.invoke();
+            else
+                pool.invoke(batch);
+        }
+        else
+        {
+            for (int i = 0; i < cars.length; i++)
+            {
+                EvaluateCandidatesOfCar(cars[i], firstCandidate[i], firstCandidate[i + 1], x, y, angleIndex, checkCars, _NearbyCars, outcomes);
             }
         }
-        return result;
     }
 
+    /**
+     * Evaluates the candidate moves of one car. Only reads the shared state, so the cars can be evaluated on multiple threads.
+     *
+     * @param car    The car whose candidates are evaluated.
+     * @param from   The index of the first candidate of the car (inclusive).
+     * @param to     The index of the last candidate of the car (exclusive).
+     * @param nearby A buffer for the nearby cars, at least as long as the number of players. Must not be shared between threads.
+     */
+    private void EvaluateCandidatesOfCar(Car car, int from, int to, int[] x, int[] y, int[] angleIndex, boolean checkCars, Car[] nearby, int[] outcomes)
+    {
+        if (from >= to)
+            return;
+
+        //Collecting the cars near any of the candidates once (the broadphase)
+        int nearbyCount = 0;
+        if (checkCars)
+        {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int c = from; c < to; c++)
+            {
+                minX = Math.min(minX, x[c]);
+                maxX = Math.max(maxX, x[c]);
+                minY = Math.min(minY, y[c]);
+                maxY = Math.max(maxY, y[c]);
+            }
+
+            int slotCount = _CarBroadphase.GetCount();
+            for (int slot = _CarBroadphase.FirstSlotFrom(minX - SharedResources.CAR_Image_Size_X);
+                 slot < slotCount && _CarBroadphase.GetKey(slot) <= maxX + SharedResources.CAR_Image_Size_X; slot++)
+            {
+                Car other = _CarBroadphase.GetCar(slot);
+                if (other != car && other.GetLocationY() >= minY - SharedResources.CAR_Image_Size_Y
+                        && other.GetLocationY() <= maxY + SharedResources.CAR_Image_Size_Y)
+                    nearby[nearbyCount++] = other;
+            }
+        }
+
+        for (int c = from; c < to; c++)
+        {
+            CarMask mask = car.GetMask(angleIndex[c]);
+            int outcome = 0;
+            for (int k = 0; k < nearbyCount; k++)
+            {
+                Car other = nearby[k];
+                if (mask.Overlaps(x[c], y[c], other.GetMask(other.GetCurrentAngleIndex()), other.GetLocationX(), other.GetLocationY()))
+                {
+                    outcome |= OUTCOME_HIT_CAR;
+                    break;
+                }
+            }
+
+            int surfaces = _Terrain.Sample(mask, x[c], y[c], IMPASSABLE_SURFACES | GRASS_SURFACES);
+            if ((surfaces & IMPASSABLE_SURFACES) != 0)
+                outcome |= OUTCOME_HIT_WALL;
+            if ((surfaces & GRASS_SURFACES) != 0)
+                outcome |= OUTCOME_ON_GRASS;
+            outcomes[c] = outcome;
+        }
+    }
 
     /**
-     * Checks if a car with a given angle intersects with a rectangle.
-     * @param car The car (as a rectange) to check.
-     * @param carAngleIndex The car's angle represented by the index value of the array of all possible angles.
-     * @param r2 The rectangle to check the car collision with.
-     * @return Return true if the car would collide with the rectangle. False if not.
+     * The parts of a parallel evaluation of candidate moves (see EvaluateCandidates). Split up recursively until one part is left,
+     * so the idle threads of the pool can steal the halves. Each part evaluates a range of the cars with its own nearby cars buffer.
      */
-    private boolean isIntersecting(Rectangle car, int carAngleIndex, Rectangle r2) {
-        return !(r2 == null || car == null) && isIntersecting(car, carAngleIndex, r2, true, false);
+    private class CandidateBatch extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; //RecursiveAction is Serializable, although the batches are never serialized
+
+        private final Car[] _Cars; //The cars whose candidates are evaluated
+        private final int[] _FirstCandidate; //The index of the first candidate of each car
+        private final int[] _X; //The X coordinates of the candidates
+        private final int[] _Y; //The Y coordinates of the candidates
+        private final int[] _AngleIndex; //The angle indexes of the candidates
+        private final boolean _CheckCars; //True to check the other cars as well
+        private final int[] _Outcomes; //Filled with the outcome of each candidate
+        private final int _PartCount; //The number of parts the cars are split into
+        private final int _FromPart; //The first part of this batch (inclusive)
+        private final int _ToPart; //The last part of this batch (exclusive)
+
+        /**
+         * A batch of parts of a parallel evaluation. See EvaluateCandidates for the parameters.
+         *
+         * @param partCount The number of parts the cars are split into.
+         * @param fromPart  The index of the first part of this batch (inclusive).
+         * @param toPart    The index of the last part of this batch (exclusive).
+         */
+        CandidateBatch(Car[] cars, int[] firstCandidate, int[] x, int[] y, int[] angleIndex, boolean checkCars, int[] outcomes,
+                       int partCount, int fromPart, int toPart)
+        {
+            _Cars = cars;
+            _FirstCandidate = firstCandidate;
+            _X = x;
+            _Y = y;
+            _AngleIndex = angleIndex;
+            _CheckCars = checkCars;
+            _Outcomes = outcomes;
+            _PartCount = partCount;
+            _FromPart = fromPart;
+            _ToPart = toPart;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (_ToPart - _FromPart == 1)
+            {
+                //The cars are spread evenly between the parts
+                int from = (int) ((long) _Cars.length * _FromPart / _PartCount);
+                int to = (int) ((long) _Cars.length * _ToPart / _PartCount);
+                Car[] nearby = _PartNearbyCars[_FromPart];
+                for (int i = from; i < to; i++)
+                {
+                    EvaluateCandidatesOfCar(_Cars[i], _FirstCandidate[i], _FirstCandidate[i + 1], _X, _Y, _AngleIndex, _CheckCars, nearby, _Outcomes);
+                }
+                return;
+            }
+
+            int middle = (_FromPart + _ToPart) >>> 1;
+            invokeAll(new CandidateBatch(_Cars, _FirstCandidate, _X, _Y, _AngleIndex, _CheckCars, _Outcomes, _PartCount, _FromPart, middle),
+                    new CandidateBatch(_Cars, _FirstCandidate, _X, _Y, _AngleIndex, _CheckCars, _Outcomes, _PartCount, middle, _ToPart));
+        }
     }
 
+    /**
+     * Check collisions between two cars.
+     * The cars are tested pixel-exact with their masks (see CarMask.Overlaps).
+     * Only the cars within one car size on both axes (found by the broadphase) are tested.
+     * @param requester The requested car object. This is used for preventing self-compare.
+     * @param position The car represented as a rectangle.
+     * @param angleIndex The current angle of the car. This is used to provide more accurate calculation.
+     * @return True if the car collides with other car. False if not.
+     */
+    public boolean isCollidingWithOtherCars(Car requester, Rectangle position, int angleIndex)
+    {
+        return isCollidingWithOtherCars(requester, requester.GetMask(angleIndex), position.x, position.y);
+    }
 
     /**
-     * Checks if a car with a given angle intersects with a line.
-     * @param car The car (as a rectange) to check.
-     * @param carAngleIndex The car's angle represented by the index value of the array of all possible angles.
-     * @param l The line to check the car collision with.
-     * @return Return true if the car would collide with the line. False if not.
+     * Check collisions between a car (given with its mask) and the other cars.
+     * @param requester The requested car object. This is used for preventing self-compare.
+     * @param mask The mask of the requested car for its (proposed) angle.
+     * @param x The X coordinate of the top left corner of the requested car's image.
+     * @param y The Y coordinate of the top left corner of the requested car's image.
+     * @return True if the car collides with other car. False if not.
      */
-    private boolean isIntersecting(Rectangle car, int carAngleIndex, Line2D l) {
-        return !(l == null || car == null) && isIntersecting(car, carAngleIndex, l, false, true);
+    private boolean isCollidingWithOtherCars(Car requester, CarMask mask, int x, int y)
+    {
+        //The car images are the same size, so two cars can only overlap if their X (and Y) coordinates are closer than that
+        int slotCount = _CarBroadphase.GetCount();
+        for (int slot = _CarBroadphase.FirstSlotFrom(x - SharedResources.CAR_Image_Size_X);
+             slot < slotCount && _CarBroadphase.GetKey(slot) <= x + SharedResources.CAR_Image_Size_X; slot++)
+        {
+            Car other = _CarBroadphase.GetCar(slot);
+            if (other == requester || Math.abs(other.GetLocationY() - y) > SharedResources.CAR_Image_Size_Y)
+                continue;
+
+            if (mask.Overlaps(x, y, other.GetMask(other.GetCurrentAngleIndex()), other.GetLocationX(), other.GetLocationY()))
+                return true;
+        }
+        return false;
     }
 
     /**
-     * Checks if a car would collide with a rectangle or line object.
-     * @param car The car (as a rectange) to check.
-     * @param carAngleIndex The car's angle represented by the index value of the array of all possible angles.
-     * @param o The rectangle or Line2D object to check the collision with.
-     * @param isObjectRectangle True if the object is a rectangle. False if not. (Used for casting)
-     * @param isObjectLine Ture if the objvect is a Line2D. False if not. (Used for casting).
-     * @return Returns true if the car would collide with the object. False if not.
+     * Sweeps a car along its displacement, and finds the time of the first impact with an impassable map object
+     * (edge, tree) or an other car. The car is swept as its convex polygon (see CarBounds), and the other cars
+     * are treated as standing still during the move. The calculation is exact (integer arithmetic), so it is used in both physics modes.
+     * The impact is found as the earliest time when a corner of the moving car hits an edge of an object,
+     * or a corner of an object hits an edge of the moving car.
+     *
+     * @param requester  The moving car. This is used for preventing self-compare. May be null if checkCars is false.
+     * @param x          The X coordinate of the top left corner of the car's image at the start of the move.
+     * @param y          The Y coordinate of the top left corner of the car's image at the start of the move.
+     * @param angleIndex The current angle of the car.
+     * @param dx         The X component of the displacement.
+     * @param dy         The Y component of the displacement.
+     * @param checkCars  True to check the other cars as well (not relevant in single player mode).
+     * @param result     Filled with the result of the sweep.
+     * @return True if the car hits something along its displacement.
      */
-    private boolean isIntersecting(Rectangle car, int carAngleIndex, Object o, Boolean isObjectRectangle, Boolean isObjectLine)
+    public boolean SweepCar(Car requester, int x, int y, int angleIndex, int dx, int dy, boolean checkCars, SweepResult result)
     {
-        Line2D tmpLine = null;
-        Rectangle tmpRec = null;
-        if (isObjectRectangle)
-            tmpRec = ((Rectangle) o);
-        if (isObjectLine)
-            tmpLine = ((Line2D) o);
+        CarBounds bounds = SharedResources.CAR_Simulated_Fine_Bounds[angleIndex];
+        double firstImpact = Double.POSITIVE_INFINITY;
+        boolean hitCar = false;
 
-        boolean result = false;
-        Line2D[] carLines = SharedResources.CAR_Simulated_Fine_Bounds[carAngleIndex].GetCarBounds(car);
+        //The area covered by the car during the whole move
+        _QueryArea.setBounds(Math.min(x, x + dx), Math.min(y, y + dy),
+                SharedResources.CAR_Image_Size_X + Math.abs(dx), SharedResources.CAR_Image_Size_Y + Math.abs(dy));
 
-        for (Line2D carLine : carLines) {
-            if (isObjectRectangle) {
-                result = tmpRec.intersectsLine(carLine);
-                if (result)
-                    return result;
+        int count = _MapObjectGrid.Query(IMPASSABLE_TYPES, _QueryArea, _Candidates);
+        for (int i = 0; i < count; i++)
+        {
+            MapObject o = _Candidates[i];
+            if (o.Line != null)
+            {
+                firstImpact = Math.min(firstImpact, SweepAgainstSegment(bounds, x, y, dx, dy,
+                        (long) o.Line.getX1(), (long) o.Line.getY1(), (long) o.Line.getX2(), (long) o.Line.getY2()));
+            }
+            if (o.Rec != null)
+            {
+                long left = o.Rec.x, top = o.Rec.y, right = left + o.Rec.width, bottom = top + o.Rec.height;
+                firstImpact = Math.min(firstImpact, SweepAgainstSegment(bounds, x, y, dx, dy, left, top, right, top));
+                firstImpact = Math.min(firstImpact, SweepAgainstSegment(bounds, x, y, dx, dy, right, top, right, bottom));
+                firstImpact = Math.min(firstImpact, SweepAgainstSegment(bounds, x, y, dx, dy, right, bottom, left, bottom));
+                firstImpact = Math.min(firstImpact, SweepAgainstSegment(bounds, x, y, dx, dy, left, bottom, left, top));
             }
+        }
+
+        if (checkCars)
+        {
+            int slotCount = _CarBroadphase.GetCount();
+            for (int slot = _CarBroadphase.FirstSlotFrom(_QueryArea.x - SharedResources.CAR_Image_Size_X);
+                 slot < slotCount && _CarBroadphase.GetKey(slot) <= _QueryArea.x + _QueryArea.width; slot++)
+            {
+                Car other = _CarBroadphase.GetCar(slot);
+                if (other == requester || other.GetLocationY() + SharedResources.CAR_Image_Size_Y < _QueryArea.y
+                        || other.GetLocationY() > _QueryArea.y + _QueryArea.height)
+                    continue;
 
-            if (isObjectLine) {
-                result = tmpLine.intersectsLine(carLine);
-                if (result)
-                    return result;
+                CarBounds otherBounds = SharedResources.CAR_Simulated_Fine_Bounds[other.GetCurrentAngleIndex()];
+                int ox = other.GetLocationX();
+                int oy = other.GetLocationY();
+                int n = otherBounds.GetHullSize();
+                for (int k = 0; k < n; k++)
+                {
+                    int l = (k + 1) % n;
+                    double impact = SweepAgainstSegment(bounds, x, y, dx, dy,
+                            ox + otherBounds.GetHullX(k), oy + otherBounds.GetHullY(k), ox + otherBounds.GetHullX(l), oy + otherBounds.GetHullY(l));
+                    if (impact < firstImpact)
+                    {
+                        firstImpact = impact;
+                        hitCar = true;
+                    }
+                }
             }
         }
-        return result;
+
+        result.Hit = firstImpact != Double.POSITIVE_INFINITY;
+        result.HitCar = result.Hit && hitCar;
+        result.TimeOfImpact = firstImpact;
+        return result.Hit;
     }
 
+    /**
+     * Finds the time of the first impact between a moving car polygon and a standing segment.
+     *
+     * @param bounds The bounds of the moving car.
+     * @param x      The X coordinate of the top left corner of the car's image at the start of the move.
+     * @param y      The Y coordinate of the top left corner of the car's image at the start of the move.
+     * @param dx     The X component of the displacement.
+     * @param dy     The Y component of the displacement.
+     * @return The time of the first impact between 0 and 1. Double.POSITIVE_INFINITY if there is no impact.
+     */
+    private static double SweepAgainstSegment(CarBounds bounds, int x, int y, int dx, int dy, long ax, long ay, long bx, long by)
+    {
+        double firstImpact = Double.POSITIVE_INFINITY;
+        int n = bounds.GetHullSize();
+        for (int i = 0; i < n; i++)
+        {
+            int j = (i + 1) % n;
+            long cx = x + bounds.GetHullX(i);
+            long cy = y + bounds.GetHullY(i);
+
+            //A corner of the car moving into the segment
+            firstImpact = Math.min(firstImpact, IntegerGeometry.RaySegmentTimeOfImpact(cx, cy, dx, dy, ax, ay, bx, by));
+
+            //An end point of the segment moving (relative to the car) into an edge of the car
+            long ex = x + bounds.GetHullX(j);
+            long ey = y + bounds.GetHullY(j);
+            firstImpact = Math.min(firstImpact, IntegerGeometry.RaySegmentTimeOfImpact(ax, ay, -dx, -dy, cx, cy, ex, ey));
+            firstImpact = Math.min(firstImpact, IntegerGeometry.RaySegmentTimeOfImpact(bx, by, -dx, -dy, cx, cy, ex, ey));
+        }
+        return firstImpact;
+    }
+
+    /**
+     * Casts a ray on the map and finds the first impassable map object (edge, tree) it hits.
+     * Only the cells of the map object grid along the ray are visited.
+     *
+     * @param x           The X coordinate of the start point of the ray.
+     * @param y           The Y coordinate of the start point of the ray.
+     * @param dirX        The X component of the direction of the ray. Does not need to be a unit vector.
+     * @param dirY        The Y component of the direction of the ray. Does not need to be a unit vector.
+     * @param maxDistance The length of the ray in pixels.
+     * @param result      Filled with the nearest hit.
+     * @return True if the ray hits a wall within the maximum distance.
+     */
+    public boolean CastRay(double x, double y, double dirX, double dirY, double maxDistance, RayHit result)
+    {
+        double length = Math.hypot(dirX, dirY);
+        if (length == 0)
+            throw new IllegalArgumentException("The direction of the ray must not be a zero vector.");
+
+        return _MapObjectGrid.CastRay(IMPASSABLE_TYPES, x, y, dirX / length, dirY / length, maxDistance, result);
+    }
 
+    /**
+     * Returns the distance to the nearest wall (edge, tree) along a direction given as a car angle.
+     *
+     * @param x           The X coordinate of the start point (e.g. the centre of a car).
+     * @param y           The Y coordinate of the start point.
+     * @param angle       The direction in degrees, the same way as the car angles (0 is north, 90 is east).
+     * @param maxDistance The maximum distance to look for a wall, in pixels.
+     * @param result      Reused for the ray cast.
+     * @return The distance to the wall in pixels. The maximum distance if there is no wall within it.
+     */
+    public double GetWallDistance(double x, double y, double angle, double maxDistance, RayHit result)
+    {
+        double radians = Math.toRadians(angle);
+        CastRay(x, y, Math.sin(radians), -Math.cos(radians), maxDistance, result);
+        return result.Distance;
+    }
+
+    /**
+     * Returns the distance to the nearest point of any wall (edge, tree) in any direction.
+     *
+     * @param x           The X coordinate of the point (e.g. the centre of a car).
+     * @param y           The Y coordinate of the point.
+     * @param maxDistance The maximum distance to look for a wall, in pixels. Must be finite.
+     * @return The distance to the nearest wall in pixels. The maximum distance if there is no wall within it.
+     */
+    public double GetNearestWallDistance(double x, double y, double maxDistance)
+    {
+        if (!(maxDistance >= 0) || Double.isInfinite(maxDistance))
+            throw new IllegalArgumentException("The maximum distance must be a finite, non-negative number.");
+
+        int left = (int) Math.floor(x - maxDistance);
+        int top = (int) Math.floor(y - maxDistance);
+        _QueryArea.setBounds(left, top, (int) Math.ceil(x + maxDistance) - left, (int) Math.ceil(y + maxDistance) - top);
 
+        double result = maxDistance;
+        int count = _MapObjectGrid.Query(IMPASSABLE_TYPES, _QueryArea, _Candidates);
+        for (int i = 0; i < count; i++)
+        {
+            result = Math.min(result, RayGeometry.DistanceToMapObject(x, y, _Candidates[i]));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,24 @@
+package ModelLayer.CollisionManagement;
+
+/**
+ * The result of checking a car on a proposed position (see CollisionManager.CheckPosition).
+ * Reused by the car between ticks, so the check does not allocate objects.
+ * This class is used as a simple structure.
+ */
+public class CollisionResult
+{
+    /**
+     * True if the car would collide with an other car.
+     */
+    public boolean HitCar;
+
+    /**
+     * True if the car would collide with an impassable map object (edge, tree).
+     */
+    public boolean HitWall;
+
+    /**
+     * True if the car would be on grass.
+     */
+    public boolean OnGrass;
+}
@@ -0,0 +1,66 @@
+package ModelLayer.CollisionManagement;
+
+/**
+ * Exact time of impact calculation on integer coordinates, used by the swept collision test (see CollisionManager.SweepCar).
+ * Only integer (long) arithmetic is used, so the results are the same on every machine (and in both physics modes).
+ * The segments are closed: touching counts as hitting.
+ */
+final class IntegerGeometry
+{
+    private IntegerGeometry()
+    {
+    }
+
+    /**
+     * Calculates when a moving point hits a line segment.
+     * The point moves from (px,py) by (dx,dy) during the time 0-1. The time is calculated from exact integer fractions.
+     *
+     * @param px The X coordinate of the start position of the point.
+     * @param py The Y coordinate of the start position of the point.
+     * @param dx The X component of the displacement.
+     * @param dy The Y component of the displacement.
+     * @param ax The X coordinate of the start point of the segment.
+     * @param ay The Y coordinate of the start point of the segment.
+     * @param bx The X coordinate of the end point of the segment.
+     * @param by The Y coordinate of the end point of the segment.
+     * @return The time of the first contact between 0 and 1 (inclusive). Double.POSITIVE_INFINITY if the point does not hit the segment.
+     */
+    static double RaySegmentTimeOfImpact(long px, long py, long dx, long dy, long ax, long ay, long bx, long by)
+    {
+        long sx = bx - ax;
+        long sy = by - ay;
+        long qx = ax - px;
+        long qy = ay - py;
+        long denominator = dx * sy - dy * sx;
+        long tNumerator = qx * sy - qy * sx;
+        long uNumerator = qx * dy - qy * dx;
+
+        if (denominator != 0)
+        {
+            if (denominator < 0)
+            {
+                denominator = -denominator;
+                tNumerator = -tNumerator;
+                uNumerator = -uNumerator;
+            }
+            if (tNumerator < 0 || tNumerator > denominator || uNumerator < 0 || uNumerator > denominator)
+                return Double.POSITIVE_INFINITY;
+            return (double) tNumerator / denominator;
+        }
+
+        if (uNumerator != 0)
+            return Double.POSITIVE_INFINITY; //Parallel, not on the same line
+
+        //Moving along the line of the segment: the first contact is the nearer end point of the segment
+        long lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0)
+            return Double.POSITIVE_INFINITY;
+        long ta = qx * dx + qy * dy;
+        long tb = (bx - px) * dx + (by - py) * dy;
+        long first = Math.min(ta, tb);
+        long last = Math.max(ta, tb);
+        if (last < 0 || first > lengthSquared)
+            return Double.POSITIVE_INFINITY;
+        return (double) Math.max(0, first) / lengthSquared;
+    }
+}
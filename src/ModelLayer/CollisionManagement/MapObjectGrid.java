@@ -0,0 +1,282 @@
+package ModelLayer.CollisionManagement;
+
+import ModelLayer.Enumerations.InGameObjectType;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform spatial hash grid over the static map objects, bucketed by the type of the objects (grass, edge, tree etc.).
+ * The grid is built once when the game starts. A map object is registered in every cell its bounding box covers,
+ * so a query only needs to look at the few cells under the car, instead of the whole list of map objects.
+ * A query returns each matching object only once, even if it is registered in several of the queried cells.
+ * Rays are cast by walking the cells along the ray (Amanatides-Woo traversal), and testing only the objects of those cells.
+ * The walk stops at the first cell which ends beyond the nearest hit found so far, so a short ray costs a few cells only.
+ * Not thread-safe: the CollisionManager only queries it under the simulation lock.
+ */
+public class MapObjectGrid
+{
+    private static final int[] EMPTY_CELL = new int[0]; //Shared by all the cells without objects
+
+    private final int _CellSize; //The width and height of a cell in pixels
+    private final int _OriginX; //The X coordinate of the left edge of the first column
+    private final int _OriginY; //The Y coordinate of the top edge of the first row
+    private final int _Columns; //The number of columns of the grid
+    private final int _Rows; //The number of rows of the grid
+    private final MapObject[] _Objects; //All the map objects. The cells contain indexes of this array.
+    private final int[][][] _Cells; //The indexes of the objects in each cell. Indexed by [type ordinal][row * _Columns + column].
+    private final int[] _QueryStamps; //The last query which returned each object. Used to return an object only once per query.
+    private int _CurrentQuery; //The stamp of the current query
+
+    /**
+     * Builds the grid over the map objects.
+     *
+     * @param mapObjects The map objects a car can collide with. Each must have a Rec or a Line.
+     * @param cellSize   The width and height of a cell in pixels.
+     */
+    public MapObjectGrid(List<MapObject> mapObjects, int cellSize)
+    {
+        _CellSize = cellSize;
+        _Objects = mapObjects.toArray(new MapObject[0]);
+        _QueryStamps = new int[_Objects.length];
+
+        //The grid covers the bounding box of all the objects
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        Rectangle[] bounds = new Rectangle[_Objects.length];
+        for (int i = 0; i < _Objects.length; i++)
+        {
+            bounds[i] = GetBounds(_Objects[i]);
+            minX = Math.min(minX, bounds[i].x);
+            minY = Math.min(minY, bounds[i].y);
+            maxX = Math.max(maxX, bounds[i].x + bounds[i].width);
+            maxY = Math.max(maxY, bounds[i].y + bounds[i].height);
+        }
+        if (_Objects.length == 0)
+        {
+            minX = minY = maxX = maxY = 0;
+        }
+        _OriginX = minX;
+        _OriginY = minY;
+        _Columns = (maxX - minX) / cellSize + 1;
+        _Rows = (maxY - minY) / cellSize + 1;
+
+        //Collect the objects of each cell
+        int types = InGameObjectType.values().length;
+        List<List<Integer>> cellLists = new ArrayList<>(types * _Columns * _Rows);
+        for (int i = 0; i < types * _Columns * _Rows; i++)
+        {
+            cellLists.add(null);
+        }
+        for (int i = 0; i < _Objects.length; i++)
+        {
+            int typeOffset = _Objects[i].Type.ordinal() * _Columns * _Rows;
+            for (int row = RowOf(bounds[i].y); row <= RowOf(bounds[i].y + bounds[i].height); row++)
+            {
+                for (int column = ColumnOf(bounds[i].x); column <= ColumnOf(bounds[i].x + bounds[i].width); column++)
+                {
+                    int cell = typeOffset + row * _Columns + column;
+                    if (cellLists.get(cell) == null)
+                        cellLists.set(cell, new ArrayList<>());
+                    cellLists.get(cell).add(i);
+                }
+            }
+        }
+
+        _Cells = new int[types][_Columns * _Rows][];
+        for (int type = 0; type < types; type++)
+        {
+            for (int cell = 0; cell < _Columns * _Rows; cell++)
+            {
+                List<Integer> list = cellLists.get(type * _Columns * _Rows + cell);
+                _Cells[type][cell] = list == null ? EMPTY_CELL : list.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * Collects the objects of the given types, which are registered in the cells covered by an area.
+     * These are the only objects which can intersect the area. Each object is returned only once.
+     *
+     * @param types  The types of the objects to collect.
+     * @param area   The area to query (e.g. the bounds of a car). The right and bottom edges are included.
+     * @param result The array to put the objects into. Must be at least as long as the number of map objects.
+     * @return The number of objects put into the result array.
+     */
+    public int Query(InGameObjectType[] types, Rectangle area, MapObject[] result)
+    {
+        int firstColumn = Math.max(0, ColumnOf(area.x));
+        int lastColumn = Math.min(_Columns - 1, ColumnOf(area.x + area.width));
+        int firstRow = Math.max(0, RowOf(area.y));
+        int lastRow = Math.min(_Rows - 1, RowOf(area.y + area.height));
+        if (firstColumn > lastColumn || firstRow > lastRow)
+            return 0; //The area is outside of the grid
+
+        int stamp = NextQueryStamp();
+        int count = 0;
+        for (InGameObjectType type : types)
+        {
+            int[][] cells = _Cells[type.ordinal()];
+            for (int row = firstRow; row <= lastRow; row++)
+            {
+                for (int column = firstColumn; column <= lastColumn; column++)
+                {
+                    for (int index : cells[row * _Columns + column])
+                    {
+                        if (_QueryStamps[index] != stamp)
+                        {
+                            _QueryStamps[index] = stamp;
+                            result[count++] = _Objects[index];
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Casts a ray and finds the nearest object of the given types it hits.
+     *
+     * @param types       The types of the objects to hit.
+     * @param x           The X coordinate of the start point of the ray.
+     * @param y           The Y coordinate of the start point of the ray.
+     * @param dirX        The X component of the unit direction vector of the ray.
+     * @param dirY        The Y component of the unit direction vector of the ray.
+     * @param maxDistance The length of the ray in pixels.
+     * @param result      Filled with the nearest hit.
+     * @return True if the ray hits an object within the maximum distance.
+     */
+    public boolean CastRay(InGameObjectType[] types, double x, double y, double dirX, double dirY, double maxDistance, RayHit result)
+    {
+        double best = maxDistance;
+        MapObject bestObject = null;
+
+        //Where the ray enters the grid (0 if it starts inside, infinity if it misses the grid)
+        double tEnter = RayGeometry.RayRectangle(x, y, dirX, dirY, _OriginX, _OriginY, _OriginX + _Columns * _CellSize, _OriginY + _Rows * _CellSize);
+        if (tEnter <= maxDistance)
+        {
+            int stamp = NextQueryStamp();
+            int column = Math.max(0, Math.min(_Columns - 1, (int) Math.floor((x + tEnter * dirX - _OriginX) / _CellSize)));
+            int row = Math.max(0, Math.min(_Rows - 1, (int) Math.floor((y + tEnter * dirY - _OriginY) / _CellSize)));
+            int stepColumn = dirX > 0 ? 1 : -1;
+            int stepRow = dirY > 0 ? 1 : -1;
+
+            //The distances along the ray to the next column and row boundaries, and between two boundaries
+            double nextColumnT = dirX != 0 ? (_OriginX + (column + (dirX > 0 ? 1 : 0)) * _CellSize - x) / dirX : Double.POSITIVE_INFINITY;
+            double nextRowT = dirY != 0 ? (_OriginY + (row + (dirY > 0 ? 1 : 0)) * _CellSize - y) / dirY : Double.POSITIVE_INFINITY;
+            double columnDeltaT = dirX != 0 ? _CellSize / Math.abs(dirX) : Double.POSITIVE_INFINITY;
+            double rowDeltaT = dirY != 0 ? _CellSize / Math.abs(dirY) : Double.POSITIVE_INFINITY;
+
+            while (true)
+            {
+                for (InGameObjectType type : types)
+                {
+                    for (int index : _Cells[type.ordinal()][row * _Columns + column])
+                    {
+                        if (_QueryStamps[index] == stamp)
+                            continue;
+                        _QueryStamps[index] = stamp;
+
+                        double distance = RayGeometry.RayMapObject(x, y, dirX, dirY, _Objects[index]);
+                        if (distance <= best)
+                        {
+                            best = distance;
+                            bestObject = _Objects[index];
+                        }
+                    }
+                }
+
+                //A hit within the current cell cannot be beaten by the objects of the later cells
+                double cellExitT = Math.min(nextColumnT, nextRowT);
+                if ((bestObject != null && best <= cellExitT) || cellExitT > maxDistance)
+                    break;
+
+                if (nextColumnT < nextRowT)
+                {
+                    column += stepColumn;
+                    nextColumnT += columnDeltaT;
+                }
+                else
+                {
+                    row += stepRow;
+                    nextRowT += rowDeltaT;
+                }
+                if (column < 0 || column >= _Columns || row < 0 || row >= _Rows)
+                    break;
+            }
+        }
+
+        result.Hit = bestObject != null;
+        result.Distance = best;
+        result.X = x + best * dirX;
+        result.Y = y + best * dirY;
+        result.Type = bestObject != null ? bestObject.Type : null;
+        return result.Hit;
+    }
+
+    /**
+     * Returns the number of map objects in the grid.
+     * @return The number of map objects.
+     */
+    public int GetObjectCount()
+    {
+        return _Objects.length;
+    }
+
+    /**
+     * Returns a new stamp for a query. The stamps are reset when the counter overflows.
+     * @return The stamp of the new query.
+     */
+    private int NextQueryStamp()
+    {
+        _CurrentQuery++;
+        if (_CurrentQuery == 0)
+        {
+            Arrays.fill(_QueryStamps, 0);
+            _CurrentQuery = 1;
+        }
+        return _CurrentQuery;
+    }
+
+    /**
+     * Returns the column of the grid containing an X coordinate.
+     * @param x The X coordinate.
+     * @return The column (could be outside of the grid).
+     */
+    private int ColumnOf(int x)
+    {
+        return Math.floorDiv(x - _OriginX, _CellSize);
+    }
+
+    /**
+     * Returns the row of the grid containing a Y coordinate.
+     * @param y The Y coordinate.
+     * @return The row (could be outside of the grid).
+     */
+    private int RowOf(int y)
+    {
+        return Math.floorDiv(y - _OriginY, _CellSize);
+    }
+
+    /**
+     * Returns the bounding box of a map object, rounded outwards to whole pixels.
+     * @param o The map object.
+     * @return The bounding box of the object's rectangle and/or line.
+     */
+    private static Rectangle GetBounds(MapObject o)
+    {
+        if (o.Line == null)
+            return new Rectangle(o.Rec);
+
+        int x1 = (int) Math.floor(Math.min(o.Line.getX1(), o.Line.getX2()));
+        int y1 = (int) Math.floor(Math.min(o.Line.getY1(), o.Line.getY2()));
+        int x2 = (int) Math.ceil(Math.max(o.Line.getX1(), o.Line.getX2()));
+        int y2 = (int) Math.ceil(Math.max(o.Line.getY1(), o.Line.getY2()));
+        Rectangle bounds = new Rectangle(x1, y1, x2 - x1, y2 - y1);
+        if (o.Rec != null)
+            bounds.add(o.Rec);
+        return bounds;
+    }
+}
@@ -0,0 +1,141 @@
+package ModelLayer.CollisionManagement;
+
+import java.awt.*;
+
+/**
+ * Ray casting and distance calculations against the map objects, used by the ray-cast and distance queries of the CollisionManager.
+ * The rays start at a point and go along a unit direction vector. The distances are measured in pixels.
+ * The segments and the rectangles are closed: touching counts as hitting. The rectangles are solid, so a ray starting inside
+ * of a rectangle hits it at distance 0.
+ */
+final class RayGeometry
+{
+    private RayGeometry()
+    {
+    }
+
+    /**
+     * Finds the distance along a ray to the first point of a map object (its line and/or its rectangle).
+     *
+     * @param px   The X coordinate of the start point of the ray.
+     * @param py   The Y coordinate of the start point of the ray.
+     * @param dirX The X component of the unit direction vector of the ray.
+     * @param dirY The Y component of the unit direction vector of the ray.
+     * @param o    The map object.
+     * @return The distance to the first hit. Double.POSITIVE_INFINITY if the ray does not hit the object.
+     */
+    static double RayMapObject(double px, double py, double dirX, double dirY, MapObject o)
+    {
+        double result = Double.POSITIVE_INFINITY;
+        if (o.Line != null)
+            result = RaySegment(px, py, dirX, dirY, o.Line.getX1(), o.Line.getY1(), o.Line.getX2(), o.Line.getY2());
+        if (o.Rec != null)
+            result = Math.min(result, RayRectangle(px, py, dirX, dirY, o.Rec.x, o.Rec.y, o.Rec.x + o.Rec.width, o.Rec.y + o.Rec.height));
+        return result;
+    }
+
+    /**
+     * Finds the distance along a ray to a line segment.
+     *
+     * @return The distance to the hit. Double.POSITIVE_INFINITY if the ray does not hit the segment.
+     */
+    static double RaySegment(double px, double py, double dirX, double dirY, double ax, double ay, double bx, double by)
+    {
+        double sx = bx - ax;
+        double sy = by - ay;
+        double qx = ax - px;
+        double qy = ay - py;
+        double denominator = dirX * sy - dirY * sx;
+
+        if (denominator != 0)
+        {
+            double t = (qx * sy - qy * sx) / denominator;
+            double u = (qx * dirY - qy * dirX) / denominator;
+            return t >= 0 && u >= 0 && u <= 1 ? t : Double.POSITIVE_INFINITY;
+        }
+
+        if (qx * dirY - qy * dirX != 0)
+            return Double.POSITIVE_INFINITY; //Parallel, not on the same line
+
+        //Going along the line of the segment: the first hit is the nearer end point of the segment
+        double ta = qx * dirX + qy * dirY;
+        double tb = (bx - px) * dirX + (by - py) * dirY;
+        if (Math.max(ta, tb) < 0)
+            return Double.POSITIVE_INFINITY;
+        return Math.max(0, Math.min(ta, tb));
+    }
+
+    /**
+     * Finds the distance along a ray to a solid axis-aligned rectangle (slab method).
+     *
+     * @return The distance to the hit (0 if the ray starts inside). Double.POSITIVE_INFINITY if the ray does not hit the rectangle.
+     */
+    static double RayRectangle(double px, double py, double dirX, double dirY, double minX, double minY, double maxX, double maxY)
+    {
+        double tEnter = 0;
+        double tExit = Double.POSITIVE_INFINITY;
+
+        if (dirX != 0)
+        {
+            double t1 = (minX - px) / dirX;
+            double t2 = (maxX - px) / dirX;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        }
+        else if (px < minX || px > maxX)
+            return Double.POSITIVE_INFINITY;
+
+        if (dirY != 0)
+        {
+            double t1 = (minY - py) / dirY;
+            double t2 = (maxY - py) / dirY;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        }
+        else if (py < minY || py > maxY)
+            return Double.POSITIVE_INFINITY;
+
+        return tEnter <= tExit ? tEnter : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the distance between a point and the nearest point of a map object (its line and/or its rectangle).
+     *
+     * @param px The X coordinate of the point.
+     * @param py The Y coordinate of the point.
+     * @param o  The map object.
+     * @return The distance (0 if the point is inside the object's rectangle).
+     */
+    static double DistanceToMapObject(double px, double py, MapObject o)
+    {
+        double result = Double.POSITIVE_INFINITY;
+        if (o.Line != null)
+            result = DistanceToSegment(px, py, o.Line.getX1(), o.Line.getY1(), o.Line.getX2(), o.Line.getY2());
+        if (o.Rec != null)
+            result = Math.min(result, DistanceToRectangle(px, py, o.Rec));
+        return result;
+    }
+
+    /**
+     * Finds the distance between a point and a line segment.
+     */
+    static double DistanceToSegment(double px, double py, double ax, double ay, double bx, double by)
+    {
+        double sx = bx - ax;
+        double sy = by - ay;
+        double lengthSquared = sx * sx + sy * sy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * sx + (py - ay) * sy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(px - (ax + t * sx), py - (ay + t * sy));
+    }
+
+    /**
+     * Finds the distance between a point and a solid rectangle.
+     */
+    static double DistanceToRectangle(double px, double py, Rectangle r)
+    {
+        double dx = Math.max(Math.max(r.x - px, 0), px - (r.x + r.width));
+        double dy = Math.max(Math.max(r.y - py, 0), py - (r.y + r.height));
+        return Math.hypot(dx, dy);
+    }
+}
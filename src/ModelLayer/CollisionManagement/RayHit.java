@@ -0,0 +1,36 @@
+package ModelLayer.CollisionManagement;
+
+import ModelLayer.Enumerations.InGameObjectType;
+
+/**
+ * The result of casting a ray on the map (see CollisionManager.CastRay).
+ * Reused by the caller between queries, so ray casting does not allocate objects.
+ * This class is used as a simple structure.
+ */
+public class RayHit
+{
+    /**
+     * True if the ray hits a map object within the maximum distance.
+     */
+    public boolean Hit;
+
+    /**
+     * The distance from the start of the ray to the hit, in pixels. The maximum distance if there is no hit.
+     */
+    public double Distance;
+
+    /**
+     * The X coordinate of the hit. Only valid if Hit is true.
+     */
+    public double X;
+
+    /**
+     * The Y coordinate of the hit. Only valid if Hit is true.
+     */
+    public double Y;
+
+    /**
+     * The type of the map object which is hit. Null if there is no hit.
+     */
+    public InGameObjectType Type;
+}
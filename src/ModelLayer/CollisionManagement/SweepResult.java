@@ -0,0 +1,25 @@
+package ModelLayer.CollisionManagement;
+
+/**
+ * The result of sweeping a car along its displacement (see CollisionManager.SweepCar).
+ * Reused by the car between ticks, so sweeping does not allocate objects.
+ * This class is used as a simple structure.
+ */
+public class SweepResult
+{
+    /**
+     * True if the car hits something along its displacement.
+     */
+    public boolean Hit;
+
+    /**
+     * True if the first thing the car hits is an other car. False if it is an impassable map object (edge, tree).
+     */
+    public boolean HitCar;
+
+    /**
+     * The time of the first impact as a fraction of the displacement (0 = at the start, 1 = at the end).
+     * Only valid if Hit is true.
+     */
+    public double TimeOfImpact;
+}
@@ -0,0 +1,186 @@
+package ModelLayer.CollisionManagement;
+
+import ModelLayer.Enumerations.InGameObjectType;
+
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * The map objects rasterized into a pixel grid, for surface queries which cost the same however many objects the map contains.
+ * Each surface type (InGameObjectType) has its own bit plane, where each row is packed into longs (bit c of word w is the pixel in column 64*w+c).
+ * All the surfaces can be sampled in one pass over the car's rows (see Sample).
+ * The rectangles are filled, the lines are drawn one pixel wide (Bresenham). The grid covers the bounding box of the map objects,
+ * everything outside of it is empty (no surface). Each row has an empty padding word on both ends, so a car partly outside of
+ * the grid can be sampled without bounds checks.
+ * A car is tested by AND-ing the rows of its mask (see CarMask) with the rows of the bit planes under the car's image,
+ * so the cost of a query only depends on the size of the car. The grid is built once per map, and is only read afterwards.
+ */
+public class TerrainGrid
+{
+    private final int _OriginX; //The X coordinate of the top left pixel of the grid on the map
+    private final int _OriginY; //The Y coordinate of the top left pixel of the grid on the map
+    private final int _Width; //The width of the grid in pixels
+    private final int _Height; //The height of the grid in pixels
+    private final int _WordsPerRow; //The number of longs in a row of a bit plane (including the two padding words)
+    private final long[][] _Planes; //The bit planes, indexed by the ordinal of the InGameObjectType. Null if the map has no object of the type.
+    private final int _PresentTypes; //The surface types the map has objects of, as bits (1 << ordinal)
+
+    /**
+     * Rasterizes the map objects into a pixel grid.
+     *
+     * @param MapObjects The map objects. The coordinates are rounded to whole pixels.
+     */
+    public TerrainGrid(ArrayList<MapObject> MapObjects)
+    {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (MapObject o : MapObjects)
+        {
+            Rectangle b = o.Line != null ? o.Line.getBounds() : o.Rec;
+            if (o.Rec != null && o.Line != null)
+                b = b.union(o.Rec);
+            minX = Math.min(minX, b.x);
+            minY = Math.min(minY, b.y);
+            maxX = Math.max(maxX, b.x + b.width);
+            maxY = Math.max(maxY, b.y + b.height);
+        }
+        if (MapObjects.isEmpty())
+        {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        _OriginX = minX;
+        _OriginY = minY;
+        _Width = maxX - minX + 1;
+        _Height = maxY - minY + 1;
+        _WordsPerRow = (_Width + Long.SIZE - 1) / Long.SIZE + 2;
+        _Planes = new long[InGameObjectType.values().length][];
+
+        int presentTypes = 0;
+        for (MapObject o : MapObjects)
+        {
+            int type = o.Type.ordinal();
+            presentTypes |= 1 << type;
+            if (_Planes[type] == null)
+                _Planes[type] = new long[_WordsPerRow * _Height];
+
+            if (o.Rec != null)
+                FillRectangle(type, o.Rec);
+            if (o.Line != null)
+                DrawLine(type, (int) Math.round(o.Line.getX1()), (int) Math.round(o.Line.getY1()),
+                        (int) Math.round(o.Line.getX2()), (int) Math.round(o.Line.getY2()));
+        }
+        _PresentTypes = presentTypes;
+    }
+
+    /**
+     * Fills the pixels of a rectangle (from x to x+width-1, from y to y+height-1) in the plane of a surface type.
+     */
+    private void FillRectangle(int type, Rectangle rec)
+    {
+        for (int y = rec.y; y < rec.y + rec.height; y++)
+        {
+            for (int x = rec.x; x < rec.x + rec.width; x++)
+            {
+                SetPixel(type, x, y);
+            }
+        }
+    }
+
+    /**
+     * Draws a one pixel wide line between two points (both included) in the plane of a surface type, with the Bresenham algorithm.
+     */
+    private void DrawLine(int type, int x1, int y1, int x2, int y2)
+    {
+        int dx = Math.abs(x2 - x1);
+        int dy = -Math.abs(y2 - y1);
+        int stepX = x1 < x2 ? 1 : -1;
+        int stepY = y1 < y2 ? 1 : -1;
+        int error = dx + dy;
+        while (true)
+        {
+            SetPixel(type, x1, y1);
+            if (x1 == x2 && y1 == y2)
+                return;
+
+            int e2 = 2 * error;
+            if (e2 >= dy)
+            {
+                error += dy;
+                x1 += stepX;
+            }
+            if (e2 <= dx)
+            {
+                error += dx;
+                y1 += stepY;
+            }
+        }
+    }
+
+    /**
+     * Sets a pixel (given in map coordinates) in the plane of a surface type.
+     */
+    private void SetPixel(int type, int x, int y)
+    {
+        int gx = x - _OriginX;
+        int gy = y - _OriginY;
+        _Planes[type][gy * _WordsPerRow + (gx >>> 6) + 1] |= 1L << gx;
+    }
+
+    /**
+     * Finds the surface types any opaque pixel of a car is on, in one pass over the car's rows.
+     * Only the requested types the map has objects of are checked, and the pass stops early when all of them have been found.
+     *
+     * @param mask  The mask of the car for its current angle.
+     * @param x     The X coordinate of the top left corner of the car's image.
+     * @param y     The Y coordinate of the top left corner of the car's image.
+     * @param types The surface types to check, as bits (1 &lt;&lt; the ordinal of the InGameObjectType).
+     * @return The checked surface types the car is on, as bits (1 &lt;&lt; the ordinal of the InGameObjectType).
+     */
+    public int Sample(CarMask mask, int x, int y, int types)
+    {
+        int wanted = types & _PresentTypes;
+        if (wanted == 0)
+            return 0;
+
+        //The car's rows span over two words of the planes (the second part is empty if the car is aligned to a word)
+        int gx = x - _OriginX;
+        int word = Math.floorDiv(gx, Long.SIZE) + 1;
+        int bit = Math.floorMod(gx, Long.SIZE);
+        if (word < 0 || word + 1 >= _WordsPerRow)
+            return 0; //Fully outside of the grid (the padding words are empty)
+
+        int from = Math.max(mask.GetFirstRow(), _OriginY - y);
+        int to = Math.min(mask.GetLastRow(), _OriginY + _Height - 1 - y);
+
+        //Fast path for the common case of a single surface type (e.g. a map with edges only)
+        if (Integer.bitCount(wanted) == 1)
+        {
+            long[] plane = _Planes[Integer.numberOfTrailingZeros(wanted)];
+            for (int row = from; row <= to; row++)
+            {
+                long carRow = mask.GetRow(row);
+                int offset = (y + row - _OriginY) * _WordsPerRow + word;
+                if (((plane[offset] & (carRow << bit)) | (plane[offset + 1] & (bit == 0 ? 0 : carRow >>> (Long.SIZE - bit)))) != 0)
+                    return wanted;
+            }
+            return 0;
+        }
+
+        int found = 0;
+        for (int row = from; row <= to && found != wanted; row++)
+        {
+            long carRow = mask.GetRow(row);
+            long firstPart = carRow << bit;
+            long secondPart = bit == 0 ? 0 : carRow >>> (Long.SIZE - bit);
+            int offset = (y + row - _OriginY) * _WordsPerRow + word;
+            for (int remaining = wanted & ~found; remaining != 0; remaining &= remaining - 1)
+            {
+                int type = Integer.numberOfTrailingZeros(remaining);
+                long[] plane = _Planes[type];
+                if (((plane[offset] & firstPart) | (plane[offset + 1] & secondPart)) != 0)
+                    found |= 1 << type;
+            }
+        }
+        return found;
+    }
+}
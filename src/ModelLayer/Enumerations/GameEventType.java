@@ -0,0 +1,24 @@
+package ModelLayer.Enumerations;
+
+/**
+ * Represents the type of an in-game event, which is delivered to the subscribers of the GameEventBus.
+ */
+public enum GameEventType
+{
+    /**
+     * A car hit a non-car object on the map (wall, tree etc.), or could not turn because of it.
+     */
+    CAR_IMPACT,
+    /**
+     * A car accelerated.
+     */
+    CAR_ACCELERATION,
+    /**
+     * A car stopped accelerating (e.g. it reached its speed limit).
+     */
+    CAR_ACCELERATION_STOPPED,
+    /**
+     * Two cars crashed into each other. The game ends.
+     */
+    CAR_CRASH
+}
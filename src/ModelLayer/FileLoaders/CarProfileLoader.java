@@ -0,0 +1,65 @@
+package ModelLayer.FileLoaders;
+
+import ControlLayer.SharedResources;
+import ModelLayer.CarProfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the handling profiles of the cars from their data files (see CarProfile).
+ */
+public class CarProfileLoader
+{
+    /**
+     * Used as a cache: The profile of each car (by car image index) is read only once.
+     * Concurrent, because headless matches may start on multiple threads.
+     */
+    private static final ConcurrentHashMap<Integer, CarProfile> _Cache_Car_Profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the handling profile of a car.
+     * A data file which cannot be read or has an invalid value is not replaced with the default profile (the car would silently
+     * drive differently), the error is thrown to the caller instead, naming the file. It is not cached, so a later call tries again.
+     * @param carImageIndex The index number of the selected car. Starts from 0.
+     * @return The profile of the car. Returns the default profile if the car has no data file.
+     * @throws IllegalArgumentException If a value of the data file is invalid. The message names the file and the key.
+     * @throws UncheckedIOException If the data file could not be read.
+     */
+    public static CarProfile LoadCarProfile(int carImageIndex)
+    {
+        if (carImageIndex < 0)
+            return CarProfile.DEFAULT;
+        return _Cache_Car_Profiles.computeIfAbsent(carImageIndex, CarProfileLoader::ProfileFileRead);
+    }
+
+    /**
+     * Reads the data file of a car.
+     * @param carImageIndex The index number of the car. Used in the file name.
+     * @return The profile of the car. Returns the default profile if the car has no data file.
+     */
+    private static CarProfile ProfileFileRead(int carImageIndex)
+    {
+        String fileName = SharedResources.CAR_Profile_RootPath + SharedResources.CAR_Profile_FileName_Prefix
+                + Integer.toString(carImageIndex) + SharedResources.CAR_Profile_FileName_Extension;
+        try (InputStream inputStream = CarProfileLoader.class.getResourceAsStream(fileName))
+        {
+            if (inputStream == null)
+                return CarProfile.DEFAULT;
+            Properties values = new Properties();
+            values.load(inputStream);
+            return new CarProfile(values);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid car profile " + fileName + ": " + e.getMessage(), e);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("The car profile " + fileName + " could not be read.", e);
+        }
+    }
+}
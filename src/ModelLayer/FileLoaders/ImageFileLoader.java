@@ -1,13 +1,15 @@
 package ModelLayer.FileLoaders;
 
 import ControlLayer.SharedResources;
+import ModelLayer.CarSprites;
+import ModelLayer.CollisionManagement.CarMask;
 import sun.tools.jar.Main;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loads in files as Images.
@@ -20,6 +22,18 @@ public class ImageFileLoader
      */
     private static Image _Cache_Crashed_Car = null;
 
+    /**
+     * Used as a cache: The rotated images of each car (by car image index) are built only once.
+     * Concurrent, because headless matches may start on multiple threads.
+     */
+    private static final ConcurrentHashMap<Integer, CarSprites> _Cache_Car_Sprites = new ConcurrentHashMap<>();
+
+    /**
+     * Used as a cache: The collision masks of each car (by car image index) are built only once.
+     * Concurrent, because headless matches may start on multiple threads.
+     */
+    private static final ConcurrentHashMap<Integer, CarMask[]> _Cache_Car_Masks = new ConcurrentHashMap<>();
+
     /**
      * Loads the background image for the main menu. Returns null in case of error.
      * @return The background image for the main menu. Also could be used on tha launch screen.
@@ -110,22 +124,62 @@ public class ImageFileLoader
     }
 
     /**
-     * Loads the car images in all its angles for in-game display.
+     * Loads the image of a car facing North, and rotates it to all the angles for in-game display (see CarSprites).
+     * The sprites are cached, so the image is read from disk and rotated only once per car.
+     * The cache holds at most one set of sprites per selectable car, so its memory is bounded.
      * @param carImageIndex The index number of the selected car. Starts from 0.
-     * @return Returns an array of Images with all the angles represented in the SharedResources.CAR_ImageFile_Angles array
+     * @return Returns the sprites of the car for all the angle indexes (see SharedResources.CAR_Simulated_Angle_Count).
+     * Returns null if the car is not selected yet (negative index) or its image could not be read.
      */
-    public static Image[] LoadCarImages(int carImageIndex)
+    public static CarSprites LoadCarSprites(int carImageIndex)
     {
-        ArrayList<Image> resultAsAL = new ArrayList<>();
-        String mainPath = SharedResources.CAR_ImageFile_RootPath + Integer.toString(carImageIndex) + "/" + SharedResources.CAR_ImageFileName_Prefix;
+        if (carImageIndex < 0)
+            return null;
+
+        CarSprites result = _Cache_Car_Sprites.get(carImageIndex);
+        if (result != null)
+            return result;
+
+        String fileName = SharedResources.CAR_ImageFile_RootPath + Integer.toString(carImageIndex) + "/" + SharedResources.CAR_ImageFileName_Prefix
+                + SharedResources.CAR_Source_ImageFile_Angle + SharedResources.CAR_ImageFileName_Extension;
+        Image image = ImgFileRead(fileName);
+        if (!(image instanceof BufferedImage))
+            return null;
+
+        result = new CarSprites((BufferedImage) image, SharedResources.CAR_Simulated_Angle_Count);
+        CarSprites cached = _Cache_Car_Sprites.putIfAbsent(carImageIndex, result);
+        return cached != null ? cached : result;
+    }
 
-        Stream.of(SharedResources.CAR_ImageFile_Angles).forEach(s ->
+    /**
+     * Builds the collision masks of a car from the alpha channel of its sprites (one mask for each angle).
+     * The masks are cached, so they are built only once per car.
+     * @param carImageIndex The index number of the selected car. Starts from 0.
+     * @return Returns an array of CarMasks for all the angle indexes (see SharedResources.CAR_Simulated_Angle_Count).
+     * Returns null if the car is not selected yet (negative index) or its image could not be read.
+     */
+    public static CarMask[] LoadCarMasks(int carImageIndex)
+    {
+        if (carImageIndex < 0)
+            return null;
+
+        CarMask[] result = _Cache_Car_Masks.get(carImageIndex);
+        if (result != null)
+            return result;
+
+        CarSprites sprites = LoadCarSprites(carImageIndex);
+        if (sprites == null)
+            return null;
+        result = new CarMask[sprites.GetAngleCount()];
+        for (int i = 0; i < result.length; i++)
         {
-            String f = mainPath + s + SharedResources.CAR_ImageFileName_Extension;
-            resultAsAL.add(ImgFileRead(f));
-        });
+            Rectangle bounds = sprites.GetBounds(i);
+            result[i] = new CarMask(sprites.GetSprite(i), bounds.x, bounds.y,
+                    SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y, SharedResources.CAR_Mask_Alpha_Threshold);
+        }
 
-        return resultAsAL.toArray(new Image[resultAsAL.size()]);
+        _Cache_Car_Masks.putIfAbsent(carImageIndex, result);
+        return result;
     }
 
     /**
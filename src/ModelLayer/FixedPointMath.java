@@ -0,0 +1,118 @@
+package ModelLayer;
+
+import ControlLayer.SharedResources;
+
+/**
+ * Fixed-point (Q16.16) arithmetic for the deterministic physics mode.
+ * A Q16 value is an int, where the lower 16 bits are the fraction (e.g. 1.5 is 98304).
+ * Integer arithmetic gives the same results on every machine, JVM and JIT tier, so two machines
+ * simulating the same inputs end up with bit-identical states (needed for sending only the inputs over
+ * the network, and for verifying replays).
+ * The cars' positions are kept in Q16 in both physics modes, so slow and diagonal movements are not lost to rounding.
+ * The physics constants are converted by TickPhysics. The direction vectors of the simulated angles are calculated with StrictMath,
+ * which is specified to return the same results everywhere (unlike Math).
+ */
+public final class FixedPointMath
+{
+    /**
+     * The number of fractional bits.
+     */
+    public static final int FRACTION_BITS = 16;
+
+    /**
+     * The value 1.0 in Q16.
+     */
+    public static final int ONE = 1 << FRACTION_BITS;
+
+    /**
+     * The value 0.5 in Q16. Added before shifting to round to the nearest integer.
+     */
+    private static final int HALF = ONE >> 1;
+
+    /**
+     * The X component of the unit direction vector of each simulated angle in Q16 (the sine of the angle, as 0 means facing North).
+     * Indexed by the angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     */
+    private static final int[] DIRECTION_X = new int[SharedResources.CAR_Simulated_Angle_Count];
+
+    /**
+     * The Y component of the unit direction vector of each simulated angle in Q16 (minus the cosine of the angle, as the Y axis points down on screen).
+     * Indexed by the angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     */
+    private static final int[] DIRECTION_Y = new int[SharedResources.CAR_Simulated_Angle_Count];
+
+    static
+    {
+        for (int i = 0; i < DIRECTION_X.length; i++)
+        {
+            double angleRad = StrictMath.toRadians(360.0 * i / SharedResources.CAR_Simulated_Angle_Count);
+            DIRECTION_X[i] = (int) StrictMath.round(StrictMath.sin(angleRad) * ONE);
+            DIRECTION_Y[i] = (int) -StrictMath.round(StrictMath.cos(angleRad) * ONE);
+        }
+    }
+
+    private FixedPointMath()
+    {
+    }
+
+    /**
+     * Converts a constant to Q16. Scaling a float by a power of two is exact, so this is deterministic.
+     * @param value The value to convert.
+     * @return The value in Q16, rounded to the nearest representable value.
+     */
+    public static int ToFixed(float value)
+    {
+        return Math.round(value * ONE);
+    }
+
+    /**
+     * Converts a Q16 value to float. Only used for displaying values (e.g. HUD), never by the simulation.
+     * @param value The value in Q16.
+     * @return The value as float.
+     */
+    public static float ToFloat(int value)
+    {
+        return (float) value / ONE;
+    }
+
+    /**
+     * Multiplies two Q16 values.
+     * @param a The first value in Q16.
+     * @param b The second value in Q16.
+     * @return The product in Q16, rounded towards negative infinity.
+     */
+    public static int Multiply(int a, int b)
+    {
+        return (int) (((long) a * b) >> FRACTION_BITS);
+    }
+
+    /**
+     * Rounds a Q16 value to the nearest integer. Halves are rounded up, the same way as Math.round does.
+     * @param value The value in Q16.
+     * @return The nearest integer.
+     */
+    public static int RoundToInt(int value)
+    {
+        return (value + HALF) >> FRACTION_BITS;
+    }
+
+    /**
+     * Returns the X component of the unit direction vector of a simulated angle.
+     * @param angleIndex The angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The X component in Q16 (the sine of the angle).
+     */
+    public static int DirectionX(int angleIndex)
+    {
+        return DIRECTION_X[angleIndex];
+    }
+
+    /**
+     * Returns the Y component of the unit direction vector of a simulated angle, in screen coordinates (the Y axis points down).
+     * @param angleIndex The angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The Y component in Q16 (minus the cosine of the angle).
+     */
+    public static int DirectionY(int angleIndex)
+    {
+        return DIRECTION_Y[angleIndex];
+    }
+}
@@ -0,0 +1,334 @@
+package ModelLayer.Fleet;
+
+import ControlLayer.SharedResources;
+import ModelLayer.CarInput;
+import ModelLayer.CollisionManagement.CarMask;
+import ModelLayer.CollisionManagement.CollisionManager;
+import ModelLayer.CollisionManagement.CollisionResult;
+import ModelLayer.CollisionManagement.SweepResult;
+import ModelLayer.FixedPointMath;
+import ModelLayer.TickPhysics;
+
+import java.awt.*;
+
+/**
+ * Simulates many cars with their state kept in parallel primitive arrays (structure of arrays), instead of one Car object per car.
+ * Meant for large headless races (e.g. thousands of AI drivers on a server), where the per-object overhead of Car dominates.
+ * The cars are driven by input words (see CarInput), and move exactly the same way as a Car in the deterministic physics mode
+ * (fixed-point arithmetic) with the same inputs: turning, speed, sub-pixel movement, and the collisions with the map.
+ * The cars of a fleet do not collide with each other (they drive like ghost cars), and they do not raise game events.
+ * A tick is done in three passes over the cars: turning (which needs collision checks), updating the speeds and the proposed
+ * positions (FleetKernel, vectorised with the Vector API where available), and moving the cars if the map allows it.
+ * Not thread-safe. A fleet must be stepped by one thread at a time.
+ */
+public class CarFleet
+{
+    private final CollisionManager _CollisionManager; //Checks the cars against the map
+    private final FleetKernel _Kernel; //Updates the speeds and calculates the proposed positions
+    private int _Count; //The number of cars in the fleet
+    private final long[] _Speed; //The speed of each car in Q16 pixels per tick
+    private final long[] _SubPixelX; //The X coordinate of the top left corner of each car's image in Q16
+    private final long[] _SubPixelY; //The Y coordinate of the top left corner of each car's image in Q16
+    private final long[] _NewSubPixelX; //The proposed new X coordinate of each car in Q16 (filled by the kernel in each tick)
+    private final long[] _NewSubPixelY; //The proposed new Y coordinate of each car in Q16 (filled by the kernel in each tick)
+    private final int[] _X; //The X coordinate of each car in whole pixels (rounded from the sub-pixel position)
+    private final int[] _Y; //The Y coordinate of each car in whole pixels (rounded from the sub-pixel position)
+    private final int[] _AngleIndex; //The angle of each car as an angle index (see SharedResources.CAR_Simulated_Angle_Count)
+    private final long[] _DirectionX; //The X component of the direction vector of each car's angle in Q16 (updated when the car turns)
+    private final long[] _DirectionY; //The Y component of the direction vector of each car's angle in Q16 (updated when the car turns)
+    private final long[] _Reverse; //1 for the cars in reverse mode, 0 for the others
+    private final long[] _OnGrass; //1 for the cars on grass (slower speed limit), 0 for the others
+    private final long[] _Inputs; //The input word of each car in the current tick (copied from the caller's array for the kernel)
+    private final int[] _PreviousInput; //The input word of each car in the previous tick
+    private final int[] _TurnProgress; //The progress of each car's current turn towards the next angle step in Q16
+    private final int _TurnSteps; //The angle steps a held turn control turns a car in one tick, in Q16
+    private final CarMask[][] _Masks; //The collision masks of each car (one for each angle)
+    private final Rectangle _Bounds = new Rectangle(0, 0, SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y); //Reused for the bounds of a car in the collision checks
+    private final SweepResult _Sweep = new SweepResult(); //Reused for the result of sweeping a car along its displacement
+    private final CollisionResult _Collision = new CollisionResult(); //Reused for the result of checking a car on a position
+
+    /**
+     * Simulates many cars with their state kept in parallel primitive arrays.
+     * The Vector API is used if the optional vector kernel (src-vector) has been compiled and the jdk.incubator.vector module has been added to the JVM.
+     *
+     * @param capacity         The maximum number of cars.
+     * @param physics          The driving physics constants converted to the tick length of the race.
+     * @param collisionManager Checks the cars against the map of the race. Its players are ignored (the fleet's cars are only checked against the map).
+     */
+    public CarFleet(int capacity, TickPhysics physics, CollisionManager collisionManager)
+    {
+        this(capacity, physics, collisionManager, true);
+    }
+
+    /**
+     * Simulates many cars with their state kept in parallel primitive arrays.
+     *
+     * @param capacity         The maximum number of cars.
+     * @param physics          The driving physics constants converted to the tick length of the race.
+     * @param collisionManager Checks the cars against the map of the race. Its players are ignored (the fleet's cars are only checked against the map).
+     * @param useVectorAPI     True to use the Vector API if available. False to always step the cars one at a time.
+     */
+    public CarFleet(int capacity, TickPhysics physics, CollisionManager collisionManager, boolean useVectorAPI)
+    {
+        _CollisionManager = collisionManager;
+        _Kernel = FleetKernel.Create(physics, useVectorAPI);
+        _TurnSteps = physics.FixedTurnSteps;
+        _Speed = new long[capacity];
+        _SubPixelX = new long[capacity];
+        _SubPixelY = new long[capacity];
+        _NewSubPixelX = new long[capacity];
+        _NewSubPixelY = new long[capacity];
+        _X = new int[capacity];
+        _Y = new int[capacity];
+        _AngleIndex = new int[capacity];
+        _DirectionX = new long[capacity];
+        _DirectionY = new long[capacity];
+        _Reverse = new long[capacity];
+        _OnGrass = new long[capacity];
+        _Inputs = new long[capacity];
+        _PreviousInput = new int[capacity];
+        _TurnProgress = new int[capacity];
+        _Masks = new CarMask[capacity][];
+    }
+
+    /**
+     * Adds a standing car to the fleet. The car is tested with its polygons rasterized (see CarMask.GetBoundsMasks).
+     *
+     * @param x          The X coordinate of the top left corner of the car's image.
+     * @param y          The Y coordinate of the top left corner of the car's image.
+     * @param angleIndex The starting angle as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @return The index of the car in the fleet.
+     */
+    public int AddCar(int x, int y, int angleIndex)
+    {
+        return AddCar(x, y, angleIndex, CarMask.GetBoundsMasks());
+    }
+
+    /**
+     * Adds a standing car to the fleet.
+     *
+     * @param x          The X coordinate of the top left corner of the car's image.
+     * @param y          The Y coordinate of the top left corner of the car's image.
+     * @param angleIndex The starting angle as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @param masks      The collision masks of the car (one for each angle), e.g. from ImageFileLoader.LoadCarMasks.
+     * @return The index of the car in the fleet.
+     */
+    public int AddCar(int x, int y, int angleIndex, CarMask[] masks)
+    {
+        if (_Count == _Speed.length)
+            throw new IllegalStateException("The fleet is full (" + _Speed.length + " cars).");
+
+        int car = _Count++;
+        _X[car] = x;
+        _Y[car] = y;
+        _SubPixelX[car] = (long) x << FixedPointMath.FRACTION_BITS;
+        _SubPixelY[car] = (long) y << FixedPointMath.FRACTION_BITS;
+        SetAngle(car, angleIndex);
+        _Speed[car] = 0;
+        _Reverse[car] = 0;
+        _OnGrass[car] = 0;
+        _PreviousInput[car] = CarInput.NONE;
+        _TurnProgress[car] = 0;
+        _Masks[car] = masks;
+        return car;
+    }
+
+    /**
+     * Runs one tick for all the cars.
+     *
+     * @param inputs The input word of each car for this tick (see CarInput), indexed by the car. Must have at least as many elements as there are cars.
+     */
+    public void Step(int[] inputs)
+    {
+        for (int car = 0; car < _Count; car++)
+        {
+            HandleTurnControls(car, inputs[car]);
+            _Inputs[car] = inputs[car];
+        }
+
+        _Kernel.Step(_Count, _Inputs, _Speed, _Reverse, _OnGrass, _DirectionX, _DirectionY, _SubPixelX, _SubPixelY, _NewSubPixelX, _NewSubPixelY);
+
+        for (int car = 0; car < _Count; car++)
+        {
+            CheckForCollisionAndMove(car);
+            _PreviousInput[car] = inputs[car];
+        }
+    }
+
+    /**
+     * Turns a car for its pressed turn control, the same way as Car does: a new press turns one angle step at once,
+     * and a held control keeps turning it at the turn rate. A step which would hit an impassable map object is dropped.
+     */
+    private void HandleTurnControls(int car, int input)
+    {
+        int steering = input & (CarInput.TURN_LEFT | CarInput.TURN_RIGHT);
+        if (steering != CarInput.TURN_LEFT && steering != CarInput.TURN_RIGHT)
+        {
+            _TurnProgress[car] = 0;
+            return;
+        }
+
+        int progress = (_PreviousInput[car] & steering) == 0 ? FixedPointMath.ONE : _TurnProgress[car] + _TurnSteps;
+        int direction = steering == CarInput.TURN_LEFT ? -1 : 1;
+        int angleCount = SharedResources.CAR_Simulated_Angle_Count;
+        _Bounds.setLocation(_X[car], _Y[car]);
+        while (progress >= FixedPointMath.ONE)
+        {
+            int newAngleIndex = (_AngleIndex[car] + direction + angleCount) % angleCount;
+            if (_CollisionManager.IsCollidingWithImpassable(_Bounds, _Masks[car][newAngleIndex]))
+            {
+                progress &= FixedPointMath.ONE - 1;
+                break;
+            }
+            SetAngle(car, newAngleIndex);
+            progress -= FixedPointMath.ONE;
+        }
+        _TurnProgress[car] = progress;
+    }
+
+    /**
+     * Sets the angle of a car, and the direction vector of the angle.
+     */
+    private void SetAngle(int car, int angleIndex)
+    {
+        _AngleIndex[car] = angleIndex;
+        _DirectionX[car] = FixedPointMath.DirectionX(angleIndex);
+        _DirectionY[car] = FixedPointMath.DirectionY(angleIndex);
+    }
+
+    /**
+     * Moves a car to its proposed position if the map allows it, the same way as Car does.
+     * The car is swept along its displacement, and stopped at the last free pixel before an impact.
+     */
+    private void CheckForCollisionAndMove(int car)
+    {
+        int x = _X[car];
+        int y = _Y[car];
+        int angleIndex = _AngleIndex[car];
+        CarMask mask = _Masks[car][angleIndex];
+        int newX = (int) ((_NewSubPixelX[car] + (FixedPointMath.ONE >> 1)) >> FixedPointMath.FRACTION_BITS);
+        int newY = (int) ((_NewSubPixelY[car] + (FixedPointMath.ONE >> 1)) >> FixedPointMath.FRACTION_BITS);
+        int dx = newX - x;
+        int dy = newY - y;
+
+        //A move of one pixel has no positions on the way, the new position is checked below either way, so the sweep is skipped
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+        if (steps > 1 && _CollisionManager.SweepCar(null, x, y, angleIndex, dx, dy, false, _Sweep))
+        {
+            //Checking the positions on the way one by one, up to the impact
+            for (int i = 1; i <= steps; i++)
+            {
+                _CollisionManager.CheckPosition(mask, x + Math.floorDiv(2 * dx * i + steps, 2 * steps), y + Math.floorDiv(2 * dy * i + steps, 2 * steps), _Collision);
+                if (_Collision.HitWall)
+                {
+                    if (i > 1)
+                        MoveTo(car, x + Math.floorDiv(2 * dx * (i - 1) + steps, 2 * steps), y + Math.floorDiv(2 * dy * (i - 1) + steps, 2 * steps));
+                    _Speed[car] = 0;
+                    return;
+                }
+            }
+        }
+
+        _CollisionManager.CheckPosition(mask, newX, newY, _Collision);
+        if (_Collision.HitWall)
+        {
+            _Speed[car] = 0;
+            return;
+        }
+
+        _X[car] = newX;
+        _Y[car] = newY;
+        _SubPixelX[car] = _NewSubPixelX[car];
+        _SubPixelY[car] = _NewSubPixelY[car];
+        _OnGrass[car] = _Collision.OnGrass ? 1 : 0;
+    }
+
+    /**
+     * Moves a car to a whole pixel position (e.g. a contact point), and snaps its sub-pixel position to it.
+     */
+    private void MoveTo(int car, int x, int y)
+    {
+        _X[car] = x;
+        _Y[car] = y;
+        _SubPixelX[car] = (long) x << FixedPointMath.FRACTION_BITS;
+        _SubPixelY[car] = (long) y << FixedPointMath.FRACTION_BITS;
+    }
+
+    /**
+     * Returns the number of cars in the fleet.
+     * @return The number of cars in the fleet.
+     */
+    public int get_Count()
+    {
+        return _Count;
+    }
+
+    /**
+     * Returns true if the cars are stepped with the Vector API (several cars at once).
+     * @return True if the Vector API is used, false if the cars are stepped one at a time.
+     */
+    public boolean IsVectorized()
+    {
+        return _Kernel.IsVectorized();
+    }
+
+    /**
+     * Returns the X coordinate of a car.
+     * @param car The index of the car.
+     * @return The X coordinate of the top left corner of the car's image.
+     */
+    public int GetLocationX(int car)
+    {
+        return _X[car];
+    }
+
+    /**
+     * Returns the Y coordinate of a car.
+     * @param car The index of the car.
+     * @return The Y coordinate of the top left corner of the car's image.
+     */
+    public int GetLocationY(int car)
+    {
+        return _Y[car];
+    }
+
+    /**
+     * Returns the angle of a car.
+     * @param car The index of the car.
+     * @return The angle as an angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     */
+    public int GetAngleIndex(int car)
+    {
+        return _AngleIndex[car];
+    }
+
+    /**
+     * Returns the speed of a car.
+     * @param car The index of the car.
+     * @return The speed in Q16 pixels per tick (see FixedPointMath).
+     */
+    public int GetFixedSpeed(int car)
+    {
+        return (int) _Speed[car];
+    }
+
+    /**
+     * Returns true if a car is in reverse mode.
+     * @param car The index of the car.
+     * @return True if the car is in reverse mode.
+     */
+    public boolean IsInReverse(int car)
+    {
+        return _Reverse[car] != 0;
+    }
+
+    /**
+     * Returns true if a car is on grass.
+     * @param car The index of the car.
+     * @return True if the car is on grass.
+     */
+    public boolean IsOnGrass(int car)
+    {
+        return _OnGrass[car] != 0;
+    }
+}
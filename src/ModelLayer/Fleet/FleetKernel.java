@@ -0,0 +1,183 @@
+package ModelLayer.Fleet;
+
+import ModelLayer.CarInput;
+import ModelLayer.FixedPointMath;
+import ModelLayer.TickPhysics;
+
+/**
+ * Updates the speed of the cars of a CarFleet and integrates their positions, one car at a time (scalar kernel).
+ * Works the same way as Car.UpdateSpeed and Car.CalculateNewLocation in the deterministic physics mode (fixed-point arithmetic),
+ * so a car of the fleet moves exactly the same way as a Car with the same inputs.
+ * The state of the cars is kept in parallel arrays (structure of arrays), indexed by the car. The speeds, the directions and the positions are in Q16 (see FixedPointMath).
+ * All the arrays are long[] (the flags are 0 or 1), so the vector kernel can process every array with the same number of lanes.
+ * This is also the fallback if the Vector API is not available (see VectorFleetKernel), and it steps the cars which do not fill a whole vector.
+ */
+class FleetKernel
+{
+    final long _MaximumSpeed; //The speed limit on road in Q16
+    final long _MaximumReverseSpeed; //The speed limit in reverse in Q16
+    final long _MaximumGrassSpeed; //The speed limit on grass in Q16 (overrides the other limits)
+    final long _MaximumGrassReverseSpeed; //The speed limit on grass in reverse in Q16
+    final long _ColdStartSpeed; //The speed of a car starting from standing in Q16
+    final long _RadicalAccelerationSpeedLimit; //Below this speed the radical acceleration ratio is used (Q16)
+    final long _NormalAccelerationSpeedLimit; //Below this speed the normal acceleration ratio is used (Q16)
+    final long _StopThreshold; //A slowing car stops at or below this speed (Q16)
+    final long _RadicalAccelerationRatio; //The speed multiplier on low speeds in Q16
+    final long _NormalAccelerationRatio; //The speed multiplier on medium speeds in Q16
+    final long _HighSpeedAccelerationRatio; //The speed multiplier on high speeds in Q16
+    final long _SlowdownRatio; //The speed multiplier of a slowing car in Q16
+
+    /**
+     * Updates the speed of the cars of a CarFleet and integrates their positions, one car at a time.
+     *
+     * @param physics The driving physics constants converted to the tick length of the match.
+     */
+    FleetKernel(TickPhysics physics)
+    {
+        _MaximumSpeed = physics.FixedMaximumSpeed;
+        _MaximumReverseSpeed = physics.FixedMaximumReverseSpeed;
+        _MaximumGrassSpeed = physics.FixedMaximumGrassSpeed;
+        _MaximumGrassReverseSpeed = physics.FixedMaximumGrassReverseSpeed;
+        _ColdStartSpeed = physics.FixedColdStartSpeed;
+        _RadicalAccelerationSpeedLimit = physics.FixedRadicalAccelerationSpeedLimit;
+        _NormalAccelerationSpeedLimit = physics.FixedNormalAccelerationSpeedLimit;
+        _StopThreshold = physics.FixedStopThreshold;
+        _RadicalAccelerationRatio = physics.FixedRadicalAccelerationRatio;
+        _NormalAccelerationRatio = physics.FixedNormalAccelerationRatio;
+        _HighSpeedAccelerationRatio = physics.FixedHighSpeedAccelerationRatio;
+        _SlowdownRatio = physics.FixedSlowdownRatio;
+    }
+
+    /**
+     * Creates the fastest kernel available. The vector kernel is used if it has been compiled (it is in the optional src-vector
+     * source root) and the Vector API can be loaded (--add-modules jdk.incubator.vector), otherwise the cars are stepped one at a time.
+     * The vector kernel is only looked up by its name, so this class compiles and runs on any JDK.
+     *
+     * @param physics     The driving physics constants converted to the tick length of the match.
+     * @param allowVector False to always use the scalar kernel.
+     * @return The kernel.
+     */
+    static FleetKernel Create(TickPhysics physics, boolean allowVector)
+    {
+        if (allowVector)
+        {
+            try
+            {
+                return (FleetKernel) Class.forName("ModelLayer.Fleet.VectorFleetKernel")
+                        .getDeclaredConstructor(TickPhysics.class).newInstance(physics);
+            }
+            catch (ReflectiveOperationException | LinkageError e)
+            {
+                //The vector kernel was not compiled, or the Vector API module is missing. Falling back to the scalar kernel.
+            }
+        }
+        return new FleetKernel(physics);
+    }
+
+    /**
+     * Returns true if the kernel steps several cars at once with the Vector API.
+     * @return True for the vector kernel, false for the scalar kernel.
+     */
+    boolean IsVectorized()
+    {
+        return false;
+    }
+
+    /**
+     * Updates the speed and the reverse flag of the cars based on their inputs, and calculates their proposed new positions.
+     * The cars are not moved, the proposed positions are checked for collisions by the CarFleet.
+     *
+     * @param count        The number of cars.
+     * @param inputs       The input word of each car for this tick (see CarInput).
+     * @param speed        The speed of each car in Q16. Updated.
+     * @param reverse      1 for the cars in reverse mode, 0 for the others. Updated.
+     * @param onGrass      1 for the cars which are on grass, 0 for the others.
+     * @param directionX   The X component of the direction vector of each car's angle in Q16 (see FixedPointMath.DirectionX).
+     * @param directionY   The Y component of the direction vector of each car's angle in Q16 (see FixedPointMath.DirectionY).
+     * @param subPixelX    The X coordinate of each car in Q16.
+     * @param subPixelY    The Y coordinate of each car in Q16.
+     * @param newSubPixelX Filled with the proposed new X coordinate of each car in Q16.
+     * @param newSubPixelY Filled with the proposed new Y coordinate of each car in Q16.
+     */
+    void Step(int count, long[] inputs, long[] speed, long[] reverse, long[] onGrass, long[] directionX, long[] directionY,
+              long[] subPixelX, long[] subPixelY, long[] newSubPixelX, long[] newSubPixelY)
+    {
+        StepCars(0, count, inputs, speed, reverse, onGrass, directionX, directionY, subPixelX, subPixelY, newSubPixelX, newSubPixelY);
+    }
+
+    /**
+     * Steps the cars from one index (inclusive) to an other (exclusive) one at a time. See Step for the parameters.
+     */
+    final void StepCars(int from, int to, long[] inputs, long[] speed, long[] reverse, long[] onGrass, long[] directionX, long[] directionY,
+                        long[] subPixelX, long[] subPixelY, long[] newSubPixelX, long[] newSubPixelY)
+    {
+        for (int i = from; i < to; i++)
+        {
+            boolean isForwardPressed = (inputs[i] & CarInput.ACCELERATE) != 0;
+            boolean isBackwardPressed = (inputs[i] & CarInput.BRAKE) != 0;
+            boolean onlyForward = isForwardPressed && !isBackwardPressed;
+            boolean onlyBackward = isBackwardPressed && !isForwardPressed;
+            boolean isReverse = reverse[i] != 0;
+            long s = speed[i];
+            boolean isCarStopped = s == 0;
+
+            //The car accelerates if only one direction is pressed, and it is going that way (or standing). Otherwise it slows down.
+            if ((onlyForward && (!isReverse || isCarStopped)) || (onlyBackward && (isReverse || isCarStopped)))
+            {
+                isReverse = onlyBackward;
+                long speedLimit = onGrass[i] != 0 ? (onlyBackward ? _MaximumGrassReverseSpeed : _MaximumGrassSpeed)
+                        : (onlyBackward ? _MaximumReverseSpeed : _MaximumSpeed);
+                if (s < speedLimit)
+                {
+                    if (s == 0)
+                        s = _ColdStartSpeed;
+                    else if (s < _RadicalAccelerationSpeedLimit)
+                        s = Multiply(s, _RadicalAccelerationRatio);
+                    else if (s < _NormalAccelerationSpeedLimit)
+                        s = Multiply(s, _NormalAccelerationRatio);
+                    else
+                        s = Multiply(s, _HighSpeedAccelerationRatio);
+                    s = Math.min(s, speedLimit);
+                }
+                else if (s > speedLimit)
+                {
+                    //Slowing down to the new limit (e.g. from road to grass)
+                    if (s <= _StopThreshold)
+                        isReverse = false;
+                    s = SlowDown(s);
+                }
+            }
+            else
+            {
+                if (s <= _StopThreshold)
+                    isReverse = false;
+                s = SlowDown(s);
+            }
+            speed[i] = s;
+            reverse[i] = isReverse ? 1 : 0;
+
+            long dx = Multiply(s, directionX[i]);
+            long dy = Multiply(s, directionY[i]);
+            newSubPixelX[i] = subPixelX[i] + (isReverse ? -dx : dx);
+            newSubPixelY[i] = subPixelY[i] + (isReverse ? -dy : dy);
+        }
+    }
+
+    /**
+     * Slows down a car, or stops it if its speed is at or below the stop threshold.
+     * @param speed The speed in Q16.
+     * @return The new speed in Q16.
+     */
+    private long SlowDown(long speed)
+    {
+        return speed <= _StopThreshold ? 0 : Multiply(speed, _SlowdownRatio);
+    }
+
+    /**
+     * Multiplies two Q16 values, the same way as FixedPointMath.Multiply.
+     */
+    private static long Multiply(long a, long b)
+    {
+        return (a * b) >> FixedPointMath.FRACTION_BITS;
+    }
+}
@@ -1,6 +1,7 @@
 package ModelLayer.MapML;
 
 import ModelLayer.CollisionManagement.MapObject;
+import ModelLayer.CollisionManagement.TerrainGrid;
 import ModelLayer.FileLoaders.ImageFileLoader;
 
 import java.awt.*;
@@ -16,11 +17,16 @@ public class MapModel
      * Contains the MapObjects which are used for collision detection.
      * MapObjects are objects of a map a car can collide with (edge of the racing track, grass, etc)
      */
-    static ArrayList<MapObject> _MapObjects;
+    ArrayList<MapObject> _MapObjects;
 
     /**
-     * Represents the cars starting angle, whereby 0 is a car facing north.
-     * This number must match with one of the elements of the SharedResources.CAR_Simulated_Angle_Values array.
+     * The MapObjects rasterized into surfaces (grass, edges, trees). Built once, when first needed.
+     */
+    private TerrainGrid _TerrainGrid;
+
+    /**
+     * Represents the cars starting angle in degrees, whereby 0 is a car facing north.
+     * The car faces the closest angle index (see SharedResources.CAR_Simulated_Angle_Count).
      */
     int CAR_Starting_Angle = 0;
     /**
@@ -103,6 +109,18 @@ public class MapModel
         return _MapObjects;
     }
 
+    /**
+     * Gets the MapObjects rasterized into surfaces, which are used for the car-vs-map collision detection.
+     * The grid is built once for the map, and reused afterwards.
+     * @return The rasterized surfaces of the map.
+     */
+    public synchronized TerrainGrid GetTerrainGrid()
+    {
+        if (_TerrainGrid == null)
+            _TerrainGrid = new TerrainGrid(GetMapObjects());
+        return _TerrainGrid;
+    }
+
     /**
      * Instantiates the MapObjects and adds them to the _MapObjects array list.
      */
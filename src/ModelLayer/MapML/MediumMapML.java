@@ -1,14 +1,33 @@
 package ModelLayer.MapML;
 
-import ControlLayer.CurrentGameSession;
 import ModelLayer.CollisionManagement.MapObject;
 import ModelLayer.Enumerations.InGameObjectType;
-import ViewLayer.MapVL.MediumMapVL;
 
+import java.awt.*;
 import java.awt.geom.Line2D;
 import java.util.ArrayList;
 
+/**
+ * Describes the elements and properties of the Medium map.
+ * The map owns the racing track's geometry, so it can be used without the view layer (e.g. in headless mode).
+ */
 public class MediumMapML extends MapModel {
+
+    /**
+     * Inner racing track lines
+     */
+    private final ArrayList<Line2D> _InnerEdges;
+
+    /**
+     * Outer racing track lines
+     */
+    private final ArrayList<Line2D> _OuterEdges;
+
+    /**
+     * Describes the elements and properties of the Medium map.
+     * Cars are facing towards east (Angle = 90).
+     * Cars are placed to the start line, which is at the bottom center of the map.
+     */
     public MediumMapML() {
         CAR_Starting_Angle = 90;
         CAR_StartingPoint_X_Player1 = 375;
@@ -16,18 +35,54 @@ public class MediumMapML extends MapModel {
         CAR_StartingPoint_X_Player2 = 375;
         CAR_StartingPoint_Y_Player2 = 550;
         MAP_TextureFile = "/imgs/maptextures/MediumMapTexture.png";
+
+        //Outer racing track points
+        Point TopLeftOuter = new Point(50, 100);
+        Point BottomLeftOuter = new Point(50, 600);
+        Point BottomRightOuter = new Point(800, 600);
+        Point MiddleRightOuter = new Point(800, 300);
+        Point MiddleCenterOuter = new Point(375, 300);
+        Point TopCenterOuter = new Point(375, 100);
+
+        //Inner racing track points
+        Point TopLeftInner = new Point(150, 200);
+        Point BottomLeftInner = new Point(150, 500);
+        Point BottomRightInner = new Point(700, 500);
+        Point MiddleRightInner = new Point(700, 400);
+        Point MiddleCenterInner = new Point(275, 400);
+        Point TopCenterInner = new Point(275, 200);
+
+
+        _InnerEdges = new ArrayList<>();
+        _OuterEdges = new ArrayList<>();
+
+        //Connecting the inner racing track points to be lines
+        _InnerEdges.add(new Line2D.Double(TopLeftInner.x, TopLeftInner.y, BottomLeftInner.x, BottomLeftInner.y));
+        _InnerEdges.add(new Line2D.Double(BottomLeftInner.x, BottomLeftInner.y, BottomRightInner.x, BottomRightInner.y));
+        _InnerEdges.add(new Line2D.Double(BottomRightInner.x, BottomRightInner.y, MiddleRightInner.x, MiddleRightInner.y));
+        _InnerEdges.add(new Line2D.Double(MiddleRightInner.x, MiddleRightInner.y, MiddleCenterInner.x, MiddleCenterInner.y));
+        _InnerEdges.add(new Line2D.Double(MiddleCenterInner.x, MiddleCenterInner.y, TopCenterInner.x, TopCenterInner.y));
+        _InnerEdges.add(new Line2D.Double(TopCenterInner.x, TopCenterInner.y, TopLeftInner.x, TopLeftInner.y));
+
+        //Connecting the outer racing track points to be lines
+        _OuterEdges.add(new Line2D.Double(TopLeftOuter.x, TopLeftOuter.y, BottomLeftOuter.x, BottomLeftOuter.y));
+        _OuterEdges.add(new Line2D.Double(BottomLeftOuter.x, BottomLeftOuter.y, BottomRightOuter.x, BottomRightOuter.y));
+        _OuterEdges.add(new Line2D.Double(BottomRightOuter.x, BottomRightOuter.y, MiddleRightOuter.x, MiddleRightOuter.y));
+        _OuterEdges.add(new Line2D.Double(MiddleRightOuter.x, MiddleRightOuter.y, MiddleCenterOuter.x, MiddleCenterOuter.y));
+        _OuterEdges.add(new Line2D.Double(MiddleCenterOuter.x, MiddleCenterOuter.y, TopCenterOuter.x, TopCenterOuter.y));
+        _OuterEdges.add(new Line2D.Double(TopCenterOuter.x, TopCenterOuter.y, TopLeftOuter.x, TopLeftOuter.y));
     }
 
+    /**
+     * Creates the MapObjects which are used for collision detection.
+     * Both the inner and the outer edges of the racing track are OUTOFMAP objects.
+     */
     @Override
     protected void CreateMapObjects() {
         _MapObjects = new ArrayList<>();
-        MediumMapVL mapVL = (MediumMapVL) CurrentGameSession.get_MapView();
-        ArrayList<Line2D> lnTmp;
 
-        lnTmp = mapVL.GetRacingTrackEdgesAsLines(true);
-        CreateOutOfMapMapObjects(lnTmp);
-        lnTmp = mapVL.GetRacingTrackEdgesAsLines(false);
-        CreateOutOfMapMapObjects(lnTmp);
+        CreateOutOfMapMapObjects(_OuterEdges);
+        CreateOutOfMapMapObjects(_InnerEdges);
     }
 
     private void CreateOutOfMapMapObjects(ArrayList<Line2D> lnTmp) {
@@ -40,5 +95,16 @@ public class MediumMapML extends MapModel {
         }
     }
 
-
+    /**
+     * Returnes the list of lines representing the edges of the racing track.
+     * @param outerEdge True if the outer edges of the racing track needs to be returned. False if the inner edges needed.
+     * @return A list of lines representing the edges of the racing track.
+     */
+    public ArrayList<Line2D> GetRacingTrackEdgesAsLines(boolean outerEdge) {
+        if (outerEdge) {
+            return _OuterEdges;
+        } else {
+            return _InnerEdges;
+        }
+    }
 }
@@ -1,6 +1,6 @@
 package ModelLayer;
 
-import java.awt.*;
+import ControlLayer.GameSession;
 
 /**
  * Represents a player in a game with its associated car.
@@ -23,11 +23,12 @@ public class Player
      * Represents a player in a game with its associated car.
      *
      * @param _PlayerName Name of the player.
+     * @param session The game session (match) the player takes part in.
      */
-    public Player(String _PlayerName)
+    public Player(String _PlayerName, GameSession session)
     {
         this._PlayerName = _PlayerName;
-        _Car = new Car(-1); //At this point it is not known what image index will be used. Therefore -1 is sent.
+        _Car = new Car(-1, session); //At this point it is not known what image index will be used. Therefore -1 is sent.
     }
 
     /**
@@ -49,21 +50,6 @@ public class Player
     }
 
 
-    /**
-     * Returns the car's image to display in the Heads Up Display.
-     * @return Car's image to display in the Heads Up Display.
-     */
-    public Image GetPlayerCarIconForHUD()
-    {
-        Image result = null;
-        if(_Car != null)
-        {
-            result = _Car.get_CarDisplay().GetFirstCarImageForHUD();
-        }
-        return  result;
-    }
-
-
     /**
      * Returns the virtual (scaled) current speed of the car to be displayed by the HUD.
      * @return Returns the virtual (scaled) current speed of the car.
@@ -0,0 +1,42 @@
+package ModelLayer;
+
+/**
+ * A finished simulation tick: the state of all cars at the end of the tick, and at the end of the tick before.
+ * The view layer interpolates between the two states, so the cars move smoothly even if the screen is
+ * refreshed more often than the game is simulated.
+ * The GameEngine keeps three frames and reuses them in turn: the latest finished frame, the frame before it (whose car states are
+ * the previous states of the latest frame), and the frame being written. So a published frame is not changed until the tick after
+ * the next one finishes, which leaves a whole tick for the EDT to draw it.
+ * This class is used as a simple structure.
+ */
+public class SimulationFrame
+{
+    /**
+     * The state of the cars at the end of the tick (in the order of the players).
+     */
+    public final CarState[] Cars;
+
+    /**
+     * The state of the cars at the end of the previous tick (in the order of the players).
+     */
+    public final CarState[] PreviousCars;
+
+    /**
+     * The time when the tick finished, as returned by System.nanoTime.
+     */
+    public long FinishedAt;
+
+    /**
+     * A finished simulation tick.
+     *
+     * @param cars         The state of the cars at the end of the tick.
+     * @param previousCars The state of the cars at the end of the previous tick. Same as cars for the very first frame.
+     * @param finishedAt   The time when the tick finished, as returned by System.nanoTime.
+     */
+    public SimulationFrame(CarState[] cars, CarState[] previousCars, long finishedAt)
+    {
+        Cars = cars;
+        PreviousCars = previousCars;
+        FinishedAt = finishedAt;
+    }
+}
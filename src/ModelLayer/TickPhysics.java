@@ -0,0 +1,132 @@
+package ModelLayer;
+
+import ControlLayer.SharedResources;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The driving physics of a car converted to one simulation tick of a given length.
+ * The handling of a car (see CarProfile) and the defaults in SharedResources are given in per second units (speeds in pixels per second, accelerations as
+ * exponential rates per second), so the handling of the cars is the same at any tick rate (e.g. 20 Hz servers, 120 Hz clients).
+ * A speed is converted by multiplying it with the tick length. An exponential rate r is converted to a per tick
+ * multiplier as e^(r * tick length in seconds), so repeating the multiplication for one second of ticks always gives the same growth.
+ * The values are also provided in Q16 fixed-point for the deterministic physics mode (see FixedPointMath).
+ * The acceleration is also compiled into a lookup table for each surface and direction (see AccelerationCurve).
+ * Only StrictMath is used, so the values are the same on every machine.
+ * This class is used as a simple structure.
+ */
+public class TickPhysics
+{
+    /**
+     * The length of one tick in nanoseconds.
+     */
+    public final long TickLength;
+
+    /* Speeds in pixels per tick */
+    public final float MaximumSpeed;
+    public final float MaximumReverseSpeed;
+    public final float MaximumGrassSpeed;
+    public final float MaximumGrassReverseSpeed;
+    public final float ColdStartSpeed;
+    public final float RadicalAccelerationSpeedLimit;
+    public final float NormalAccelerationSpeedLimit;
+    public final float StopThreshold;
+
+    /* Speed multipliers per tick */
+    public final float RadicalAccelerationRatio;
+    public final float NormalAccelerationRatio;
+    public final float HighSpeedAccelerationRatio;
+    public final float SlowdownRatio;
+
+    /* The same values in Q16 fixed-point, for the deterministic physics mode */
+    public final int FixedMaximumSpeed;
+    public final int FixedMaximumReverseSpeed;
+    public final int FixedMaximumGrassSpeed;
+    public final int FixedMaximumGrassReverseSpeed;
+    public final int FixedColdStartSpeed;
+    public final int FixedRadicalAccelerationSpeedLimit;
+    public final int FixedNormalAccelerationSpeedLimit;
+    public final int FixedStopThreshold;
+    public final int FixedRadicalAccelerationRatio;
+    public final int FixedNormalAccelerationRatio;
+    public final int FixedHighSpeedAccelerationRatio;
+    public final int FixedSlowdownRatio;
+
+    /**
+     * The number of angle steps a held turn control turns the car in one tick, in Q16.
+     * Turning is calculated in Q16 in both physics modes, so the car faces the same angle on every machine.
+     */
+    public final int FixedTurnSteps;
+
+    /* The acceleration on each surface in each direction */
+    private final AccelerationCurve _RoadForwardCurve;
+    private final AccelerationCurve _RoadReverseCurve;
+    private final AccelerationCurve _GrassForwardCurve;
+    private final AccelerationCurve _GrassReverseCurve;
+
+    /**
+     * Converts the default driving physics constants of SharedResources to one simulation tick.
+     * @param tickLength The length of one tick in nanoseconds.
+     */
+    public TickPhysics(long tickLength)
+    {
+        this(tickLength, CarProfile.DEFAULT);
+    }
+
+    /**
+     * Converts the handling of a car to one simulation tick.
+     * @param tickLength The length of one tick in nanoseconds.
+     * @param profile The handling of the car.
+     */
+    public TickPhysics(long tickLength, CarProfile profile)
+    {
+        TickLength = tickLength;
+        double seconds = (double) tickLength / TimeUnit.SECONDS.toNanos(1);
+
+        MaximumSpeed = (float) (profile.MaximumSpeed * seconds);
+        MaximumReverseSpeed = (float) (profile.MaximumReverseSpeed * seconds);
+        MaximumGrassSpeed = (float) (profile.MaximumGrassSpeed * seconds);
+        MaximumGrassReverseSpeed = (float) (profile.MaximumGrassReverseSpeed * seconds);
+        ColdStartSpeed = MaximumSpeed * profile.ColdStartPercentage;
+        RadicalAccelerationSpeedLimit = MaximumSpeed * profile.RadicalAccelerationSpeedLimit;
+        NormalAccelerationSpeedLimit = MaximumSpeed * profile.NormalAccelerationSpeedLimit;
+        StopThreshold = (float) (profile.StopThreshold * seconds);
+
+        RadicalAccelerationRatio = (float) StrictMath.exp(profile.RadicalAccelerationRate * seconds);
+        NormalAccelerationRatio = (float) StrictMath.exp(profile.NormalAccelerationRate * seconds);
+        HighSpeedAccelerationRatio = (float) StrictMath.exp(profile.HighSpeedAccelerationRate * seconds);
+        SlowdownRatio = (float) StrictMath.exp(profile.SlowdownRate * seconds);
+
+        FixedMaximumSpeed = FixedPointMath.ToFixed(MaximumSpeed);
+        FixedMaximumReverseSpeed = FixedPointMath.ToFixed(MaximumReverseSpeed);
+        FixedMaximumGrassSpeed = FixedPointMath.ToFixed(MaximumGrassSpeed);
+        FixedMaximumGrassReverseSpeed = FixedPointMath.ToFixed(MaximumGrassReverseSpeed);
+        FixedColdStartSpeed = FixedPointMath.ToFixed(ColdStartSpeed);
+        FixedRadicalAccelerationSpeedLimit = FixedPointMath.ToFixed(RadicalAccelerationSpeedLimit);
+        FixedNormalAccelerationSpeedLimit = FixedPointMath.ToFixed(NormalAccelerationSpeedLimit);
+        FixedStopThreshold = FixedPointMath.ToFixed(StopThreshold);
+        FixedRadicalAccelerationRatio = FixedPointMath.ToFixed(RadicalAccelerationRatio);
+        FixedNormalAccelerationRatio = FixedPointMath.ToFixed(NormalAccelerationRatio);
+        FixedHighSpeedAccelerationRatio = FixedPointMath.ToFixed(HighSpeedAccelerationRatio);
+        FixedSlowdownRatio = FixedPointMath.ToFixed(SlowdownRatio);
+        FixedTurnSteps = FixedPointMath.ToFixed((float) (profile.TurnRate * seconds * SharedResources.CAR_Simulated_Angle_Count / 360));
+
+        _RoadForwardCurve = new AccelerationCurve(this, MaximumSpeed, FixedMaximumSpeed);
+        _RoadReverseCurve = new AccelerationCurve(this, MaximumReverseSpeed, FixedMaximumReverseSpeed);
+        _GrassForwardCurve = new AccelerationCurve(this, MaximumGrassSpeed, FixedMaximumGrassSpeed);
+        _GrassReverseCurve = new AccelerationCurve(this, MaximumGrassReverseSpeed, FixedMaximumGrassReverseSpeed);
+    }
+
+    /**
+     * Returns the acceleration of the car on a surface in a direction.
+     * @param onGrass True if the car is on grass (off-road).
+     * @param reverse True if the car is accelerating in reverse.
+     * @return The acceleration curve, which also holds the speed limit.
+     */
+    public AccelerationCurve GetAccelerationCurve(boolean onGrass, boolean reverse)
+    {
+        if (onGrass)
+            return reverse ? _GrassReverseCurve : _GrassForwardCurve;
+        return reverse ? _RoadReverseCurve : _RoadForwardCurve;
+    }
+}
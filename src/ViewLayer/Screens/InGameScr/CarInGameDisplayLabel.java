@@ -2,6 +2,9 @@ package ViewLayer.Screens.InGameScr;
 
 import ControlLayer.SharedResources;
 import ModelLayer.Car;
+import ModelLayer.CarSprites;
+import ModelLayer.CarState;
+import ModelLayer.FileLoaders.ImageFileLoader;
 import ModelLayer.Player;
 
 import javax.swing.*;
@@ -11,13 +14,20 @@ import java.awt.*;
  * Builds on a JLabel to display images of a car (in different angles) on the screen.
  * Acts as the view layer of the car representation. Works together with the Car class in the model layer.
  * Represents one car/player in the game.
+ * The images of all the angles are rotated when the car is loaded (see CarSprites), so turning the car only swaps the image.
+ * Each image is cropped to the car, so the label is moved and resized to the bounds of the image of the current angle.
  */
 public class CarInGameDisplayLabel extends JLabel
 {
     /**
-     * An array of images of a car with different angles.
+     * The images of the car for all the angles, with their bounds.
      */
-    private Image[] _CarImages;
+    private CarSprites _CarSprites;
+
+    /**
+     * The bounds of the crashed car image (the same as the car's image).
+     */
+    private static final Rectangle CRASHED_CAR_BOUNDS = new Rectangle(0, 0, SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y);
 
     /**
      * Image of a crashed car. Used when two cars collide with each other.
@@ -25,17 +35,22 @@ public class CarInGameDisplayLabel extends JLabel
     private Image _CrashedCarImage;
 
     /**
-     * Index of the currently used car image from the _CarImages array.
+     * The angle index of the currently used car image.
      */
     private int _CurrentCarImage;
 
     /**
-     * Currently used Image. (same as retrieving the Image with _CurrentCarImage index from the _CarImages array)
+     * Currently used Image. (same as retrieving the sprite with _CurrentCarImage index from the _CarSprites)
      */
     private ImageIcon _CurrentIcon;
 
     /**
-     * The model layer representation of the car. This calculates the next location/position of this JLabel.
+     * The bounds of the currently used image, relative to the top left corner of the car's image.
+     */
+    private Rectangle _CurrentBounds;
+
+    /**
+     * The model layer representation of the car. This calculates the location/position and angle displayed by this JLabel.
      */
     private Car _CarLogic;
 
@@ -44,21 +59,23 @@ public class CarInGameDisplayLabel extends JLabel
      * Builds on a JLabel to display images of a car (in different angles) on the screen.
      * Acts as the view layer of the car representation. Works together with the Car class in the model layer.
      * Represents one car/player in the game.
+     * The label is placed to the car's current location and angle (the car must be already placed by the GameEngine).
      *
      * @param player The player object this car belongs to.
      */
     public CarInGameDisplayLabel(Player player)
     {
         _CarLogic = player.get_Car();
-        _CarLogic.set_CarDisplay(this);
 
         GetCarImages();
-        _CurrentCarImage = 0;
-        setSize(SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y);
+        CarState state = _CarLogic.CaptureState();
+        _CurrentCarImage = state.AngleIndex;
+        _CurrentBounds = _CarSprites.GetBounds(_CurrentCarImage);
+        setSize(_CurrentBounds.width, _CurrentBounds.height);
 
-        _CurrentIcon = new ImageIcon(_CarImages[_CurrentCarImage]);
+        _CurrentIcon = new ImageIcon(_CarSprites.GetSprite(_CurrentCarImage));
         setIcon(_CurrentIcon);
-        setLocation(0,0);
+        setLocation(state.X + _CurrentBounds.x, state.Y + _CurrentBounds.y);
 
         setVisible(true);
     }
@@ -68,128 +85,92 @@ public class CarInGameDisplayLabel extends JLabel
      */
     public void ShutDown()
     {
-        _CarImages = null;
+        _CarSprites = null;
         _CrashedCarImage = null;
         _CarLogic = null;
         _CurrentIcon = null;
     }
 
     /**
-     * Asks the model layer car object to provide the car image files from the disk.
+     * Loads the car images for all angles (and the crashed car image), based on the car selected for the model layer car object.
+     * The images are read from the disk and rotated only once per car.
      */
     private void GetCarImages()
     {
-         _CarImages = _CarLogic.LoadCarImages();
-         _CrashedCarImage = _CarLogic.GetCrashedCarImage();
+         _CarSprites = ImageFileLoader.LoadCarSprites(_CarLogic.get_CarImageFileIndex());
+         _CrashedCarImage = ImageFileLoader.LoadCrashedCarImage();
     }
 
 
     /**
      * Called when one of the control keys are pressed.
-     * The pressing information passed to the model layer car object to be handled.
+     * The pressing information passed to the GameEngine to be handled by the model layer car object.
      * @param keyCode The keycode of the pressed key.
      */
     public void ControlKeyPressed(int keyCode)
     {
-        _CarLogic.HandlePressedKey(keyCode);
+        SharedResources.MainController.get_GameEngine().ControlKeyPressed(_CarLogic, keyCode);
     }
 
     /**
      * Called when one of the control keys are released from pressing.
-     * The releasing information passed to the model layer car object to be handled.
+     * The releasing information passed to the GameEngine to be handled by the model layer car object.
      * @param keyCode The keycode of the released key.
      */
     public void ControlKeyReleased(int keyCode)
     {
-        _CarLogic.HandleReleasedKey(keyCode);
+        SharedResources.MainController.get_GameEngine().ControlKeyReleased(_CarLogic, keyCode);
     }
 
     /**
-     * Turns the car either clockwise (right) or counter-clockwise (left)
-     * @param isLeftDirection True to turn the car counter-clockwise. False to turn it clockwise.
-     * @return Returns an array index of the newly used car image. This matches with the angle in SharedResources.CAR_Simulated_Angle_Values
+     * Called each time the screen is refreshed.
+     * Moves the car image to the location, and turns it to the angle calculated by the model layer Car object.
+     * The location and the angle are interpolated between the last two simulation ticks.
+     * @param previous The state of the car at the end of the tick before the last one.
+     * @param current The state of the car at the end of the last tick.
+     * @param alpha The interpolation factor: 0 displays the previous state, 1 displays the current state.
      */
-    public int Turn(boolean isLeftDirection)
+    public void RefreshForNextFrame(CarState previous, CarState current, float alpha)
     {
-        _CurrentCarImage = GetNewCarImageIndexIfTurned(isLeftDirection);
-        _CurrentIcon.setImage(_CarImages[_CurrentCarImage]);
-        this.setVisible(true);
-
-        return _CurrentCarImage;
-    }
-
-    /**
-     * Calculates which car image to use after a turn.  Does not turn the car.
-     * @param isLeftDirection True to turn the car counter-clockwise. False to turn it clockwise.
-     * @return Returns an array index of the turned car. This matches with the angle in SharedResources.CAR_Simulated_Angle_Values
-     */
-    public int GetNewCarImageIndexIfTurned(boolean isLeftDirection)
-    {
-        int nImageIndex;
-        if(isLeftDirection)
-        {
-            nImageIndex = _CurrentCarImage - 1;
-            if(nImageIndex < 0)
-            {
-                nImageIndex += _CarImages.length;
-            }
-        }
-        else
+        int angleIndex = InterpolateAngleIndex(previous.AngleIndex, current.AngleIndex, alpha);
+        if (angleIndex != _CurrentCarImage)
         {
-            nImageIndex = _CurrentCarImage + 1;
-            if(nImageIndex >= _CarImages.length)
-            {
-                nImageIndex -= _CarImages.length;
-            }
+            _CurrentCarImage = angleIndex;
+            _CurrentBounds = _CarSprites.GetBounds(_CurrentCarImage);
+            _CurrentIcon.setImage(_CarSprites.GetSprite(_CurrentCarImage));
+            setSize(_CurrentBounds.width, _CurrentBounds.height);
         }
-        return nImageIndex;
+        setLocation(Math.round(previous.X + (current.X - previous.X) * alpha) + _CurrentBounds.x,
+                Math.round(previous.Y + (current.Y - previous.Y) * alpha) + _CurrentBounds.y);
     }
 
-
     /**
-     * Called each time the timer ticks.
-     * Asks the model layer Car object to calculate the new location/angle for the car image.
+     * Interpolates between two angles along the shorter arc, and picks the closest angle the car has an image for.
+     * @param fromIndex The starting angle index (see SharedResources.CAR_Simulated_Angle_Count).
+     * @param toIndex The ending angle index.
+     * @param alpha The interpolation factor: 0 returns fromIndex, 1 returns toIndex.
+     * @return The interpolated angle index.
      */
-    public void RefreshForNextFrame()
+    private int InterpolateAngleIndex(int fromIndex, int toIndex, float alpha)
     {
-        _CarLogic.CalculateNextFrame();
-    }
-
-    /**
-     * Sets the car angle to a specific value. This is used at the start of the game.
-     * @param angle The angle value to set the car to. Must be a value from the SharedResources.CAR_Simulated_Angle_Values array.
-     */
-    public void SetStartImage(int angle)
-    {
-        int i;
-        for (i = 0; i < SharedResources.CAR_Simulated_Angle_Values.length; i++)
-        {
-            if(SharedResources.CAR_Simulated_Angle_Values[i] == angle)
-            {
-                break;
-            }
-        }
-
-        if(i < SharedResources.CAR_Simulated_Angle_Values.length)
-        {
-            _CurrentCarImage = i;
-            _CurrentIcon.setImage(_CarImages[_CurrentCarImage]);
-            _CarLogic.set_CurrentAngle(SharedResources.CAR_Simulated_Angle_Values[i]);
-            this.setVisible(true);
-        }
+        if (fromIndex == toIndex)
+            return toIndex;
 
+        int count = SharedResources.CAR_Simulated_Angle_Count;
+        int difference = Math.floorMod(toIndex - fromIndex + count / 2, count) - count / 2;
+        return Math.floorMod(fromIndex + Math.round(difference * alpha), count);
     }
 
     /**
      * Returns an image of the car for the Heads Up Display to be displayed.
-     * This is the car image with the angle of the first element in SharedResources.CAR_Simulated_Angle_Values array.
-     * @return An image of the car. This is one of the in-game car images with the same size too.
+     * This is the image of the car facing North, as read from the disk.
+     * @return An image of the car. This has the same size as the car's image.
      */
     public Image GetFirstCarImageForHUD()
     {
-        if(_CarImages != null )
+        if(_CarSprites != null )
         {
-            return _CarImages[0];
+            return _CarSprites.get_SourceImage();
         }
         else
         {
@@ -203,6 +184,10 @@ public class CarInGameDisplayLabel extends JLabel
      */
     public void SetImageToCrashedCar()
     {
+        Point location = getLocation();
+        setLocation(location.x - _CurrentBounds.x + CRASHED_CAR_BOUNDS.x, location.y - _CurrentBounds.y + CRASHED_CAR_BOUNDS.y);
+        _CurrentBounds = CRASHED_CAR_BOUNDS;
+        setSize(_CurrentBounds.width, _CurrentBounds.height);
         _CurrentIcon.setImage(_CrashedCarImage);
         setIcon(_CurrentIcon);
         setVisible(true);
@@ -1,9 +1,11 @@
 package ViewLayer.Screens.InGameScr;
 
 import ControlLayer.SharedResources;
+import ModelLayer.CarState;
 import ModelLayer.Player;
 
 import javax.swing.*;
+import java.awt.*;
 
 /**
  * A heads up display representing in-game information for one associated player.
@@ -16,6 +18,11 @@ class HeadsUpDisplayPanel extends JPanel {
      */
     private final Player _Player;
 
+    /**
+     * The image of the player's car to be displayed as a thumbnail.
+     */
+    private final Image _CarIcon;
+
     /**
      * Car image/thumbnail.
      */
@@ -41,9 +48,11 @@ class HeadsUpDisplayPanel extends JPanel {
      * The HUD displays: Image/thumbnail of the car, player's name, current speed as a number, current speed in a progress bar.
      *
      * @param player The player to associate the HUD with.
+     * @param carIcon The image of the player's car to be displayed as a thumbnail.
      */
-    public HeadsUpDisplayPanel(Player player) {
+    public HeadsUpDisplayPanel(Player player, Image carIcon) {
         _Player = player;
+        _CarIcon = carIcon;
         this.setLayout(null);
         this.setLocation(0, 0);
         this.setSize(SharedResources.HUD_Panel_Width, SharedResources.HUD_Panel_Height);
@@ -66,9 +75,10 @@ class HeadsUpDisplayPanel extends JPanel {
 
     /**
      * Updates the current speed values in the HUD.
+     * @param state The state of the player's car at the end of the finished simulation tick.
      */
-    public void UpdateHUD() {
-        int speed = _Player.GetLatestCarSpeedForHUD();
+    public void UpdateHUD(CarState state) {
+        int speed = state.VirtualSpeed;
         _SpeedLabel.setText(SharedResources.HUD_SpeedLabel_Text_Prefix + Integer.toString(speed) + SharedResources.HUD_SpeedLabel_Text_PostFix);
         _Progress.setValue(speed);
     }
@@ -135,7 +145,7 @@ class HeadsUpDisplayPanel extends JPanel {
         int y = (SharedResources.HUD_Panel_Height - SharedResources.CAR_Image_Size_Y) / 2;
         _PIcon.setLocation(0, y);
 
-        ImageIcon icon = new ImageIcon(_Player.GetPlayerCarIconForHUD());
+        ImageIcon icon = new ImageIcon(_CarIcon);
         _PIcon.setIcon(icon);
 
         this.add(_PIcon);
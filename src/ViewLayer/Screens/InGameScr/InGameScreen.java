@@ -2,7 +2,9 @@ package ViewLayer.Screens.InGameScr;
 
 import ControlLayer.CurrentGameSession;
 import ControlLayer.SharedResources;
+import ModelLayer.CarInput;
 import ModelLayer.Enumerations.GameMode;
+import ModelLayer.SimulationFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -10,7 +12,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.Arrays;
 import java.util.stream.Stream;
 
 public class InGameScreen extends JPanel implements ActionListener, KeyListener
@@ -48,7 +49,7 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
         if(CurrentGameSession.get_GameMode() == GameMode.SINGLEPLAYER)
         {
             _HUDs = new HeadsUpDisplayPanel[1];
-            _HUDs[0] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(0));
+            _HUDs[0] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(0), _CarLabels[0].GetFirstCarImageForHUD());
             _HUDs[0].setLocation(SharedResources.HUD_OnScreenLocation_X_Player_1, SharedResources.HUD_OnScreenLocation_Y_Player_1);
             _HUDs[0].CreateHudComponents();
         }
@@ -56,8 +57,8 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
         if(CurrentGameSession.get_GameMode() == GameMode.SIDEBYSIDE)
         {
             _HUDs = new HeadsUpDisplayPanel[2];
-            _HUDs[0] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(0));
-            _HUDs[1] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(1));
+            _HUDs[0] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(0), _CarLabels[0].GetFirstCarImageForHUD());
+            _HUDs[1] = new HeadsUpDisplayPanel(CurrentGameSession.get_CurrentPlayers().get(1), _CarLabels[1].GetFirstCarImageForHUD());
             _HUDs[0].setLocation(SharedResources.HUD_OnScreenLocation_X_Player_1, SharedResources.HUD_OnScreenLocation_Y_Player_1);
             _HUDs[1].setLocation(SharedResources.HUD_OnScreenLocation_X_Player_2, SharedResources.HUD_OnScreenLocation_Y_Player_2);
             _HUDs[0].CreateHudComponents();
@@ -77,9 +78,6 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
         {
             _CarLabels = new CarInGameDisplayLabel[1];
             _CarLabels[0] = new CarInGameDisplayLabel(CurrentGameSession.get_CurrentPlayers().get(0));
-
-            _CarLabels[0].setLocation(CurrentGameSession.get_MapModel().getCAR_StartingPoint_X_Player1(), CurrentGameSession.get_MapModel().getCAR_StartingPoint_Y_Player1());
-            _CarLabels[0].SetStartImage(CurrentGameSession.get_MapModel().getCAR_Starting_Angle());
         }
 
         if(CurrentGameSession.get_GameMode() == GameMode.SIDEBYSIDE)
@@ -87,13 +85,6 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
             _CarLabels = new CarInGameDisplayLabel[2];
             _CarLabels[0] = new CarInGameDisplayLabel(CurrentGameSession.get_CurrentPlayers().get(0));
             _CarLabels[1] = new CarInGameDisplayLabel(CurrentGameSession.get_CurrentPlayers().get(1));
-
-
-            _CarLabels[0].setLocation(CurrentGameSession.get_MapModel().getCAR_StartingPoint_X_Player1(), CurrentGameSession.get_MapModel().getCAR_StartingPoint_Y_Player1());
-            _CarLabels[0].SetStartImage(CurrentGameSession.get_MapModel().getCAR_Starting_Angle());
-            _CarLabels[1].setLocation(CurrentGameSession.get_MapModel().getCAR_StartingPoint_X_Player2(), CurrentGameSession.get_MapModel().getCAR_StartingPoint_Y_Player2());
-            _CarLabels[1].SetStartImage(CurrentGameSession.get_MapModel().getCAR_Starting_Angle());
-
         }
 
 
@@ -105,25 +96,18 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
         });
     }
 
-    public void NextFrame()
+    public void NextFrame(SimulationFrame frame, float alpha)
     {
-        Arrays.stream(_CarLabels).forEach(cl ->
-        {
-            if(SharedResources.MainController.get_GameEngine() != null)
-            {
-                cl.RefreshForNextFrame();
-            }
-        });
+        if(SharedResources.MainController.get_GameEngine() == null || frame == null)
+            return;
 
-        Arrays.stream(_HUDs).forEach(h1 ->
+        for (int i = 0; i < _CarLabels.length; i++)
         {
-            if(SharedResources.MainController.get_GameEngine() != null) {
-                h1.UpdateHUD();
-            }
-        });
+            _CarLabels[i].RefreshForNextFrame(frame.PreviousCars[i], frame.Cars[i], alpha);
+            _HUDs[i].UpdateHUD(frame.Cars[i]);
+        }
 
-        if(SharedResources.MainController.get_GameEngine() != null)
-            repaint();
+        repaint();
     }
 
     @Override
@@ -181,7 +165,7 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
 
         if(CurrentGameSession.get_GameMode() == GameMode.SINGLEPLAYER)
         {
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_1).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_1) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[0].ControlKeyPressed(e.getKeyCode());
@@ -191,13 +175,13 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
 
         if(CurrentGameSession.get_GameMode() == GameMode.SIDEBYSIDE)
         {
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_1).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_1) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[0].ControlKeyPressed(e.getKeyCode());
             }
 
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_2).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_2) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[1].ControlKeyPressed(e.getKeyCode());
@@ -213,7 +197,7 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
 
         if(CurrentGameSession.get_GameMode() == GameMode.SINGLEPLAYER)
         {
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_1).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_1) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[0].ControlKeyReleased(e.getKeyCode());
@@ -222,13 +206,13 @@ public class InGameScreen extends JPanel implements ActionListener, KeyListener
 
         if(CurrentGameSession.get_GameMode() == GameMode.SIDEBYSIDE)
         {
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_1).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_1) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[0].ControlKeyReleased(e.getKeyCode());
             }
 
-            if(Arrays.asList(SharedResources.GCS_ControlKeys_Player_2).contains(e.getKeyCode()))
+            if(CarInput.FromKeyCode(e.getKeyCode(), SharedResources.GCS_ControlKeys_Player_2) != CarInput.NONE)
             {
                 //JOptionPane.showMessageDialog(null, "Received KEYPRESSED action: " + e.toString());
                 _CarLabels[1].ControlKeyReleased(e.getKeyCode());
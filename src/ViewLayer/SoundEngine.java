@@ -1,16 +1,20 @@
 package ViewLayer;
 
+import ControlLayer.GameEvent;
+import ControlLayer.GameEventListener;
 import ControlLayer.SharedResources;
 import ModelLayer.FileLoaders.AudioFileLoader;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
+import java.util.List;
 
 /**
  * Responsible for playing sounds and music on request.
+ * Subscribes to the in-game events of the game engine, and plays the sound effects for them.
  */
-public class SoundEngine
+public class SoundEngine implements GameEventListener
 {
     /**
      * Clip that plays the background music file.
@@ -91,6 +95,37 @@ public class SoundEngine
         }
     }
 
+    /**
+     * Plays the sound effects for the in-game events of one tick, if the sounds are enabled by the user.
+     * Called on the event delivery thread of the game engine.
+     * @param events The events of one tick, in the order they happened.
+     */
+    @Override
+    public void OnGameEvents(List<GameEvent> events)
+    {
+        if (!SharedResources.DGO_Default_Sound_On)
+            return;
+
+        for (GameEvent event : events)
+        {
+            switch (event.Type)
+            {
+                case CAR_IMPACT:
+                    PlayCarImpactSound();
+                    break;
+                case CAR_ACCELERATION:
+                    SetCarAccelerateSound(true);
+                    break;
+                case CAR_ACCELERATION_STOPPED:
+                    SetCarAccelerateSound(false);
+                    break;
+                case CAR_CRASH:
+                    PlayCarCrashSound();
+                    break;
+            }
+        }
+    }
+
     /**
      * Plays the sound when a car hits a non-car object.
      */
@@ -3,6 +3,7 @@ package ViewLayer;
 
 import ControlLayer.SharedResources;
 import ModelLayer.FileLoaders.ImageFileLoader;
+import ModelLayer.SimulationFrame;
 import ViewLayer.Screens.InGameScr.InGameScreen;
 import ViewLayer.Screens.LaunchScr.LaunchScreen;
 import ViewLayer.Screens.MainMenuScr.MainMenuScreen;
@@ -222,13 +223,29 @@ public class SwingUICore extends JFrame implements ActionListener {
     }
 
     /**
-     * This method is called each time the refresh Timer ticks.
+     * This method is called each time the render Timer ticks.
      * It asks the in-game screen to update its components (HUD, cars)
+     * @param frame The last finished simulation tick.
+     * @param alpha The interpolation factor between the previous and the last tick's car states (0-1).
      */
-    public void UpdateInGameScreen()
+    public void UpdateInGameScreen(SimulationFrame frame, float alpha)
     {
         if(_InGameScreen != null)
-            _InGameScreen.NextFrame();
+            _InGameScreen.NextFrame(frame, alpha);
+    }
+
+    /**
+     * Returns the refresh rate of the display the game is shown on.
+     * @return The number of screen refreshes per second. Returns SharedResources.DEFAULT_DISPLAY_REFRESH_RATE if it is unknown.
+     */
+    public int GetDisplayRefreshRate()
+    {
+        int refreshRate = getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        if (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN)
+        {
+            refreshRate = SharedResources.DEFAULT_DISPLAY_REFRESH_RATE;
+        }
+        return refreshRate;
     }
 
     /**
@@ -0,0 +1,218 @@
+package ModelLayer.CollisionManagement;
+
+import ControlLayer.GameEngine;
+import ControlLayer.GameEvent;
+import ControlLayer.GameSession;
+import ControlLayer.SharedResources;
+import ModelLayer.Car;
+import ModelLayer.Enumerations.GameEventType;
+import ModelLayer.Enumerations.GameMode;
+import ModelLayer.MapML.MapModel;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that the collision path and the game ticks do not allocate objects once they are warmed up.
+ * A headless game is started on each map in both physics modes, and on the calling thread:
+ * - the collision queries (the position checks, the sweeps, the ray casts and the batch evaluation of candidate moves) are repeated
+ *   around the cars' starting points, where the cars are close to each other,
+ * - whole ticks are run (GameEngine.RunTicks) with a car accelerating from its starting point, coasting and standing, without
+ *   colliding with anything. The game events of these ticks are delivered to a subscriber, like the sounds in a real game.
+ * The bytes allocated by the thread are read from the ThreadMXBean (HotSpot's com.sun.management extension) around the last round.
+ * The first rounds are not measured, as they include the class loading, the lazily built masks and the JIT compilation.
+ * The ticks are measured in windows of rounds, until a window does not allocate (at most TICK_WINDOWS of them): a late
+ * recompilation of the JIT can allocate a few bytes once (when a compiled method is deoptimized, its eliminated objects are
+ * recreated), while an allocation of the ticks themselves shows up in every window.
+ * Run it with the classes of src and of this source root on the classpath (on JDK 9+ with the same
+ * --add-exports jdk.jartool/sun.tools.jar=ALL-UNNAMED as the game, for the image loading). The exit code is 1 if any allocation was found.
+ */
+public class CollisionAllocationCheck
+{
+    private static final int ROUNDS = 3; //The number of rounds per game, only the last one is measured
+    private static final int ITERATIONS = 200000; //The number of iterations per round
+    private static final int TICK_ROUNDS = 100; //The number of driving rounds in the warm-up and in each measured window
+    private static final int TICK_WINDOWS = 4; //The maximum number of measured windows per game
+    private static final int ACCELERATION_TICKS = 10; //The ticks of a driving round with the accelerate control held
+    private static final int COASTING_TICKS = 40; //The ticks of a driving round after the accelerate control is released (the car slows down and stops)
+
+    /**
+     * Runs the check on every map in both physics modes.
+     * @param args Input parameters are not used.
+     */
+    public static void main(String[] args)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean failed = false;
+        for (String map : SharedResources.MSP_Maps)
+        {
+            for (boolean deterministic : new boolean[] {false, true})
+            {
+                String name = map + (deterministic ? " fixed-point" : " floating point");
+                long allocated = MeasureGame(threads, map, deterministic);
+                System.out.println(name + ": " + allocated + " bytes allocated in " + ITERATIONS + " collision query iterations");
+                failed |= allocated != 0;
+
+                allocated = MeasureTicks(threads, map, deterministic);
+                if (allocated < 0)
+                {
+                    System.out.println(name + ": the car collided while driving, the ticks could not be measured");
+                    failed = true;
+                    continue;
+                }
+                System.out.println(name + ": " + allocated + " bytes allocated in " + (TICK_ROUNDS * (ACCELERATION_TICKS + COASTING_TICKS))
+                        + " ticks without collisions");
+                failed |= allocated != 0;
+            }
+        }
+        System.out.println(failed ? "FAILED: the collision path or the ticks allocate" : "OK: the collision path and the ticks do not allocate");
+        if (failed)
+            System.exit(1);
+    }
+
+    /**
+     * Starts a headless two player game, and measures the allocations of the collision queries on it.
+     * @return The bytes allocated by the calling thread in the last round.
+     */
+    private static long MeasureGame(com.sun.management.ThreadMXBean threads, String map, boolean deterministic)
+    {
+        GameSession session = new GameSession();
+        session.set_GameMode(GameMode.SIDEBYSIDE);
+        session.set_SelectedMapName(map);
+        session.set_DeterministicPhysics(deterministic);
+        for (int i = 0; i < session.get_CurrentPlayers().size(); i++)
+            session.get_CurrentPlayers().get(i).get_Car().set_CarImageFileIndex(i);
+        new GameEngine(session).StartGame();
+
+        CollisionManager collisionManager = session.get_CollisionManager();
+        Car[] cars = new Car[session.get_CurrentPlayers().size()];
+        for (int i = 0; i < cars.length; i++)
+            cars[i] = session.get_CurrentPlayers().get(i).get_Car();
+
+        //Four candidate moves per car around its position, evaluated as one batch
+        int candidatesPerCar = 4;
+        int[] firstCandidate = new int[cars.length + 1];
+        int[] x = new int[cars.length * candidatesPerCar];
+        int[] y = new int[x.length];
+        int[] angleIndex = new int[x.length];
+        int[] outcomes = new int[x.length];
+        for (int i = 0; i <= cars.length; i++)
+            firstCandidate[i] = i * candidatesPerCar;
+
+        Rectangle position = new Rectangle(0, 0, SharedResources.CAR_Image_Size_X, SharedResources.CAR_Image_Size_Y);
+        CollisionResult collision = new CollisionResult();
+        SweepResult sweep = new SweepResult();
+        RayHit ray = new RayHit();
+        long tid = Thread.currentThread().getId();
+        long allocated = 0;
+        int sink = 0; //Keeps the results alive, so the queries are not optimized away
+
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            long before = threads.getThreadAllocatedBytes(tid);
+            for (int i = 0; i < ITERATIONS; i++)
+            {
+                Car car = cars[i % cars.length];
+                int angle = i % SharedResources.CAR_Simulated_Angle_Count;
+                int dx = (i % 61) - 30;
+                int dy = ((i / 61) % 61) - 30;
+                position.setLocation(car.GetLocationX() + dx, car.GetLocationY() + dy);
+
+                collisionManager.CheckPosition(car, position, angle, true, collision);
+                sink += collision.HitWall ? 1 : 0;
+                sink += collisionManager.IsCollidingWithImpassable(position, car.GetMask(angle)) ? 1 : 0;
+                sink += collisionManager.isCollidingWithOtherCars(car, position, angle) ? 1 : 0;
+                sink += collisionManager.SweepCar(car, car.GetLocationX(), car.GetLocationY(), angle, dx * 4, dy * 4, true, sweep) ? 1 : 0;
+                sink += collisionManager.CastRay(car.GetLocationX(), car.GetLocationY(), dx, dy + 0.5, 500, ray) ? 1 : 0;
+
+                for (int c = 0; c < x.length; c++)
+                {
+                    Car owner = cars[c / candidatesPerCar];
+                    x[c] = owner.GetLocationX() + (c % candidatesPerCar) - dx;
+                    y[c] = owner.GetLocationY() - (c % candidatesPerCar) + dy;
+                    angleIndex[c] = (angle + c) % SharedResources.CAR_Simulated_Angle_Count;
+                }
+                collisionManager.EvaluateCandidates(cars, firstCandidate, x, y, angleIndex, true, null, outcomes);
+                sink += outcomes[i % outcomes.length];
+            }
+            allocated = threads.getThreadAllocatedBytes(tid) - before;
+        }
+        if (sink == Integer.MIN_VALUE)
+            System.out.println(sink);
+        return allocated;
+    }
+
+    /**
+     * Starts a headless single player game, and measures the allocations of whole ticks on it. In each round the car is placed
+     * on its starting point (not measured), then accelerates for a few ticks and coasts until it stops.
+     * @return The bytes allocated by the calling thread in the last measured window (0 if a window did not allocate).
+     * -1 if the car collided with something (or the events could not be checked).
+     */
+    private static long MeasureTicks(com.sun.management.ThreadMXBean threads, String map, boolean deterministic)
+    {
+        GameSession session = new GameSession();
+        session.set_GameMode(GameMode.SINGLEPLAYER);
+        session.set_SelectedMapName(map);
+        session.set_DeterministicPhysics(deterministic);
+        session.get_CurrentPlayers().get(0).get_Car().set_CarImageFileIndex(0);
+        GameEngine engine = new GameEngine(session);
+        engine.StartGame();
+
+        //The events are delivered, so the pooling of the event bus is measured as well. Collisions are counted, as the ticks must be free of them.
+        AtomicInteger collisions = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(1);
+        engine.get_EventBus().Subscribe(events ->
+        {
+            for (GameEvent event : events)
+            {
+                if (event.Source == null)
+                    delivered.countDown(); //The marker posted after the last round
+                else if (event.Type == GameEventType.CAR_IMPACT || event.Type == GameEventType.CAR_CRASH)
+                    collisions.incrementAndGet();
+            }
+        });
+
+        Car car = session.get_CurrentPlayers().get(0).get_Car();
+        MapModel mapModel = session.get_MapModel();
+        int accelerateKey = SharedResources.GCS_ControlKeys_Player_1[0];
+        long tid = Thread.currentThread().getId();
+        long allocated = 0;
+
+        //The first window is the warm-up, it is not measured
+        for (int window = 0; window <= TICK_WINDOWS; window++)
+        {
+            allocated = 0;
+            for (int round = 0; round < TICK_ROUNDS; round++)
+            {
+                car.ResetForNewGame(mapModel.getCAR_StartingPoint_X_Player1(), mapModel.getCAR_StartingPoint_Y_Player1(), mapModel.getCAR_Starting_Angle());
+                engine.ControlKeyPressed(car, accelerateKey);
+
+                long before = threads.getThreadAllocatedBytes(tid);
+                engine.RunTicks(ACCELERATION_TICKS);
+                engine.ControlKeyReleased(car, accelerateKey);
+                engine.RunTicks(COASTING_TICKS);
+                allocated += threads.getThreadAllocatedBytes(tid) - before;
+            }
+            if (window > 0 && allocated == 0)
+                break;
+        }
+
+        //The ticks are delivered in order, so all the events of the rounds have been delivered once the marker is
+        boolean running = engine.IsGameRunning();
+        engine.get_EventBus().Post(GameEventType.CAR_ACCELERATION_STOPPED, null);
+        engine.get_EventBus().EndTick();
+        try
+        {
+            delivered.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        engine.ShutDown();
+        return running && delivered.getCount() == 0 && collisions.get() == 0 ? allocated : -1;
+    }
+}